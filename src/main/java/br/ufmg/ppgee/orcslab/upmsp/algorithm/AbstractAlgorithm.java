@@ -1,11 +1,16 @@
 package br.ufmg.ppgee.orcslab.upmsp.algorithm;
 
+import br.ufmg.ppgee.orcslab.upmsp.neighborhood.*;
 import br.ufmg.ppgee.orcslab.upmsp.problem.Problem;
 import br.ufmg.ppgee.orcslab.upmsp.problem.Solution;
+import br.ufmg.ppgee.orcslab.upmsp.sequencing.DescentSequencer;
+import br.ufmg.ppgee.orcslab.upmsp.sequencing.MachineSequencer;
+import br.ufmg.ppgee.orcslab.upmsp.sequencing.OrOpt;
+import br.ufmg.ppgee.orcslab.upmsp.sequencing.SequenceCache;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Random;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Base class for algorithms that process the input parameters to avoid {@code null} values for the
@@ -43,7 +48,14 @@ public abstract class AbstractAlgorithm implements Algorithm {
         }
 
         // Solve the problem
-        return doSolve(problem, random, parameters, callback);
+        Solution solution = doSolve(problem, random, parameters, callback);
+
+        // Post-optimization: sequence the jobs of each machine again
+        if ((boolean) parameters.getOrDefault("post-sequencing", false)) {
+            sequence(problem, solution, parameters);
+        }
+
+        return solution;
     }
 
     /**
@@ -57,4 +69,137 @@ public abstract class AbstractAlgorithm implements Algorithm {
      */
     protected abstract Solution doSolve(Problem problem, Random random, Map<String, Object> parameters, Callback callback);
 
+    /**
+     * Create the start solution of an algorithm. If the parameter {@code initial-solution} is set,
+     * a copy of the given solution is used (warm start). Otherwise, the solution is built with the
+     * constructive heuristic selected by the parameter {@code initial-heuristic}, which may be
+     * {@code random} (default), {@code greedy} or {@code grasp}. When GRASP is used, the
+     * parameters {@code grasp-alpha}, {@code grasp-iterations} and {@code threads} are forwarded
+     * to the heuristic. If the parameter {@code initial-sequencing} is true, the jobs of each
+     * machine of the start solution are sequenced (see {@link #createSequencer(Map)}).
+     * @param problem The problem instance.
+     * @param random A random number generator.
+     * @param parameters Algorithm parameters.
+     * @return The start solution.
+     */
+    protected Solution createInitialSolution(Problem problem, Random random, Map<String, Object> parameters) {
+        Solution solution = buildInitialSolution(problem, random, parameters);
+        if ((boolean) parameters.getOrDefault("initial-sequencing", false)) {
+            sequence(problem, solution, parameters);
+        }
+        return solution;
+    }
+
+    private Solution buildInitialSolution(Problem problem, Random random, Map<String, Object> parameters) {
+        if (parameters.containsKey("initial-solution")) {
+            Solution solution = new Solution((Solution) parameters.get("initial-solution"));
+            solution.update();
+            return solution;
+        }
+
+        String heuristic = (String) parameters.getOrDefault("initial-heuristic", "random");
+        switch (heuristic) {
+
+            case "random":
+                return new RandomHeuristic().solve(problem, random, null, null);
+
+            case "greedy":
+                return new GreedyHeuristic().solve(problem, random, null, null);
+
+            case "grasp":
+                Map<String, Object> graspParameters = new HashMap<>();
+                graspParameters.put("alpha", parameters.getOrDefault("grasp-alpha", 0.3));
+                graspParameters.put("iterations-limit", parameters.getOrDefault("grasp-iterations", 10L));
+                graspParameters.put("threads", parameters.getOrDefault("threads", 1));
+                return new GraspHeuristic().solve(problem, random, graspParameters, null);
+
+            default:
+                throw new IllegalArgumentException("Unknown initial heuristic: " + heuristic);
+        }
+    }
+
+    /**
+     * Create the sequencer used to improve the order of the jobs on each machine. Machines with up
+     * to {@code exact-sequencing-limit} jobs (12 by default) are sequenced exactly, and the other
+     * ones by the heuristic selected by the parameter {@code sequencer}, which may be
+     * {@code or-opt} (default) or {@code descent}. The sequences are kept in the cache given by
+     * the parameter {@code sequence-cache}, if any.
+     * @param parameters Algorithm parameters.
+     * @return The sequencer.
+     */
+    protected MachineSequencer createSequencer(Map<String, Object> parameters) {
+        int exactLimit = (int) parameters.getOrDefault("exact-sequencing-limit", 12);
+        String name = (String) parameters.getOrDefault("sequencer", "or-opt");
+        SequenceCache cache = (SequenceCache) parameters.get("sequence-cache");
+        switch (name) {
+            case "or-opt": return new MachineSequencer(exactLimit, new OrOpt(), cache);
+            case "descent": return new MachineSequencer(exactLimit, new DescentSequencer(), cache);
+            default: throw new IllegalArgumentException("Unknown sequencer: " + name);
+        }
+    }
+
+    /**
+     * Sequence the jobs of all machines of a solution, in parallel if the parameter
+     * {@code threads} is greater than one.
+     * @param problem The problem instance.
+     * @param solution The solution.
+     * @param parameters Algorithm parameters.
+     */
+    protected void sequence(Problem problem, Solution solution, Map<String, Object> parameters) {
+        int threads = (int) parameters.getOrDefault("threads", 1);
+        ExecutorService executor = (threads > 1 ? Executors.newFixedThreadPool(threads) : null);
+        try {
+            createSequencer(parameters).improveAll(problem, solution, executor);
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Create the list of neighborhoods used by an algorithm. The neighborhoods are created in the
+     * order given by the parameter {@code neighborhood-order} (a list of names) or, if it is not
+     * set, in the default order. Neighborhoods listed in the parameter
+     * {@code disabled-neighborhoods} are not created. If the parameter {@code move-cache-size} is
+     * positive, the best moves of each neighborhood are cached (see {@link CachedNeighborhood}).
+     * @param parameters Algorithm parameters.
+     * @param defaultOrder Names of the neighborhoods in the default order.
+     * @return The list of neighborhoods.
+     */
+    protected List<Neighborhood> createNeighborhoods(Map<String, Object> parameters, String... defaultOrder) {
+        List<String> order = (List<String>) parameters.getOrDefault("neighborhood-order", Arrays.asList(defaultOrder));
+        List<String> disabled = (List<String>) parameters.getOrDefault("disabled-neighborhoods", Collections.emptyList());
+
+        int cacheSize = (int) parameters.getOrDefault("move-cache-size", 0);
+
+        List<Neighborhood> neighborhoods = new ArrayList<>();
+        for (String name : order) {
+            if (!disabled.contains(name)) {
+                Neighborhood neighborhood = createNeighborhood(name);
+                neighborhoods.add(cacheSize > 0 ? new CachedNeighborhood(neighborhood, cacheSize) : neighborhood);
+            }
+        }
+
+        return neighborhoods;
+    }
+
+    /**
+     * Create a neighborhood from its name ({@code shift}, {@code switch}, {@code task-move},
+     * {@code swap}, {@code two-shift} or {@code direct-swap}).
+     * @param name Name of the neighborhood.
+     * @return The neighborhood.
+     */
+    protected static Neighborhood createNeighborhood(String name) {
+        switch (name) {
+            case "shift": return new Shift();
+            case "switch": return new Switch();
+            case "task-move": return new TaskMove();
+            case "swap": return new Swap();
+            case "two-shift": return new TwoShift();
+            case "direct-swap": return new DirectSwap();
+            default: throw new IllegalArgumentException("Unknown neighborhood: " + name);
+        }
+    }
+
 }
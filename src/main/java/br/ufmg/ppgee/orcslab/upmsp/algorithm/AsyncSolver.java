@@ -0,0 +1,103 @@
+package br.ufmg.ppgee.orcslab.upmsp.algorithm;
+
+import br.ufmg.ppgee.orcslab.upmsp.problem.Problem;
+import br.ufmg.ppgee.orcslab.upmsp.problem.Solution;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Asynchronous facade to run algorithms on a pool of threads. Each call to
+ * {@link #submit(Algorithm, Problem, Random, Map, Callback)} returns immediately a
+ * {@link SolverHandle}, which gives access to the result, to the stream of improvements and allows
+ * the cancellation of the run. Cancellation interrupts the thread running the algorithm, which is
+ * honored by all algorithms that use the stop conditions (see
+ * {@link br.ufmg.ppgee.orcslab.upmsp.algorithm.stop.StopConditions}).
+ */
+public class AsyncSolver implements AutoCloseable {
+
+    private final ExecutorService executor;
+
+    /**
+     * Constructor.
+     * @param threads Maximum number of algorithms running concurrently.
+     */
+    public AsyncSolver(int threads) {
+        AtomicInteger counter = new AtomicInteger(0);
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(runnable, "solver-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        this.executor = Executors.newFixedThreadPool(threads, factory);
+    }
+
+    /**
+     * Submit an algorithm to run asynchronously.
+     * @param algorithm The algorithm.
+     * @param problem Instance of the problem to be solved.
+     * @param random A random number generator.
+     * @param parameters Algorithm parameters.
+     * @return The handle of the run.
+     */
+    public SolverHandle submit(Algorithm algorithm, Problem problem, Random random, Map<String, Object> parameters) {
+        return submit(algorithm, problem, random, parameters, null);
+    }
+
+    /**
+     * Submit an algorithm to run asynchronously.
+     * @param algorithm The algorithm.
+     * @param problem Instance of the problem to be solved.
+     * @param random A random number generator.
+     * @param parameters Algorithm parameters.
+     * @param callback A callback object (it may be null), called from the thread running the
+     *                 algorithm.
+     * @return The handle of the run.
+     */
+    public SolverHandle submit(Algorithm algorithm, Problem problem, Random random, Map<String, Object> parameters,
+                               Callback callback) {
+        return submit(new SolverHandle(callback), algorithm, problem, random, parameters);
+    }
+
+    /**
+     * Submit an algorithm to run asynchronously with a handle created by the caller.
+     * @param handle The handle of the run (it must not have been submitted before).
+     * @param algorithm The algorithm.
+     * @param problem Instance of the problem to be solved.
+     * @param random A random number generator.
+     * @param parameters Algorithm parameters.
+     * @return The handle of the run.
+     */
+    public SolverHandle submit(SolverHandle handle, Algorithm algorithm, Problem problem, Random random,
+                               Map<String, Object> parameters) {
+        executor.execute(() -> handle.run(() -> algorithm.solve(problem, random, parameters, handle)));
+        return handle;
+    }
+
+    /**
+     * Cancel all running algorithms and release the threads.
+     */
+    public void shutdownNow() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Wait for the submitted algorithms to finish and release the threads. If the current thread
+     * is interrupted while waiting, it stops waiting and keeps the interrupted status.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -2,6 +2,8 @@ package br.ufmg.ppgee.orcslab.upmsp.algorithm;
 
 import br.ufmg.ppgee.orcslab.upmsp.problem.Solution;
 
+import java.util.List;
+
 /**
  * Interface for callback.
  */
@@ -15,4 +17,15 @@ public interface Callback {
      */
     void onNewIncumbent(Solution incumbent, long iteration, long time);
 
+    /**
+     * Called with the statistics of the use of the neighborhoods by the algorithm, when a new
+     * incumbent solution is found and at the end of the run. By default, they are ignored.
+     * @param usage The statistics of each neighborhood.
+     * @param iteration The current iteration.
+     * @param time      The current time (in nanoseconds).
+     */
+    default void onNeighborhoodUsage(List<NeighborhoodUsage> usage, long iteration, long time) {
+        /* Do nothing. */
+    }
+
 }
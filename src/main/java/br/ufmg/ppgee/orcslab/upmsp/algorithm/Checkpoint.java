@@ -0,0 +1,236 @@
+package br.ufmg.ppgee.orcslab.upmsp.algorithm;
+
+import br.ufmg.ppgee.orcslab.upmsp.problem.Problem;
+import br.ufmg.ppgee.orcslab.upmsp.problem.Solution;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Random;
+
+/**
+ * State of a run of the {@link SimulatedAnnealing}, which can be saved to a compact binary file
+ * and later used to resume the run. The state of the random number generator is saved as well,
+ * so a resumed run continues the same sequence of random numbers. The temperatures calibrated at
+ * the start of the run (see the parameter {@code initial-temperature=auto}) are saved too, so a
+ * resumed run follows the same cooling schedule instead of calibrating them again.
+ */
+public class Checkpoint {
+
+    /**
+     * Identifies the file format ("UPMC" followed by the version).
+     */
+    private static final int MAGIC = 0x55504d43;
+    private static final int VERSION = 2;
+
+    /**
+     * The current solution.
+     */
+    public final Solution solution;
+
+    /**
+     * The best solution found.
+     */
+    public final Solution bestSolution;
+
+    /**
+     * The current temperature.
+     */
+    public final double temperature;
+
+    /**
+     * The initial temperature (also used for reheating).
+     */
+    public final double initialTemperature;
+
+    /**
+     * The final temperature, if the temperatures were calibrated, or 0 otherwise.
+     */
+    public final double finalTemperature;
+
+    /**
+     * Total number of iterations performed.
+     */
+    public final long iterations;
+
+    /**
+     * Number of iterations performed at the current temperature.
+     */
+    public final long iterationsInTemperature;
+
+    /**
+     * Elapsed time (in nanoseconds).
+     */
+    public final long time;
+
+    /**
+     * State of the random number generator (it is serialized, since it cannot be accessed
+     * otherwise).
+     */
+    private final byte[] randomState;
+
+    /**
+     * Constructor.
+     * @param solution The current solution.
+     * @param bestSolution The best solution found.
+     * @param temperature The current temperature.
+     * @param initialTemperature The initial temperature.
+     * @param finalTemperature The final temperature, if the temperatures were calibrated, or 0
+     *                         otherwise.
+     * @param iterations Total number of iterations performed.
+     * @param iterationsInTemperature Number of iterations performed at the current temperature.
+     * @param time Elapsed time (in nanoseconds).
+     * @param random The random number generator (its current state is saved).
+     */
+    public Checkpoint(Solution solution, Solution bestSolution, double temperature, double initialTemperature,
+                      double finalTemperature, long iterations, long iterationsInTemperature, long time, Random random) {
+        this.solution = solution;
+        this.bestSolution = bestSolution;
+        this.temperature = temperature;
+        this.initialTemperature = initialTemperature;
+        this.finalTemperature = finalTemperature;
+        this.iterations = iterations;
+        this.iterationsInTemperature = iterationsInTemperature;
+        this.time = time;
+        this.randomState = saveRandom(random);
+    }
+
+    private Checkpoint(Solution solution, Solution bestSolution, double temperature, double initialTemperature,
+                       double finalTemperature, long iterations, long iterationsInTemperature, long time,
+                       byte[] randomState) {
+        this.solution = solution;
+        this.bestSolution = bestSolution;
+        this.temperature = temperature;
+        this.initialTemperature = initialTemperature;
+        this.finalTemperature = finalTemperature;
+        this.iterations = iterations;
+        this.iterationsInTemperature = iterationsInTemperature;
+        this.time = time;
+        this.randomState = randomState;
+    }
+
+    /**
+     * Return a random number generator in the state it was when the checkpoint was created.
+     * @return The random number generator.
+     */
+    public Random getRandom() {
+        return loadRandom(randomState);
+    }
+
+    private static byte[] saveRandom(Random random) {
+        try (ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+             ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+            output.writeObject(random);
+            output.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+    }
+
+    private static Random loadRandom(byte[] data) {
+        try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(data))) {
+            return (Random) input.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Write this checkpoint to a file. The data is first written to a temporary file, which then
+     * replaces the target file, so a failure while writing does not corrupt a previous checkpoint.
+     * @param path Path to the file.
+     * @param problem The problem instance.
+     * @throws IOException If an error occurs while writing the file.
+     */
+    public void write(Path path, Problem problem) throws IOException {
+        Path absolute = path.toAbsolutePath();
+        Path temporary = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeInt(problem.n);
+            output.writeInt(problem.m);
+            output.writeLong(iterations);
+            output.writeLong(iterationsInTemperature);
+            output.writeLong(time);
+            output.writeDouble(temperature);
+            output.writeDouble(initialTemperature);
+            output.writeDouble(finalTemperature);
+            output.writeInt(randomState.length);
+            output.write(randomState);
+            writeSolution(output, problem, solution);
+            writeSolution(output, problem, bestSolution);
+        }
+        Files.move(temporary, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Read a checkpoint from a file. The files of the first version, without the calibrated
+     * temperatures, are read as well (the initial temperature is NaN, so the one of the
+     * parameters is used).
+     * @param path Path to the file.
+     * @param problem The problem instance (it must be the same used to write the checkpoint).
+     * @return The checkpoint.
+     * @throws IOException If an error occurs while reading the file or if it is not a valid
+     * checkpoint of the problem instance.
+     */
+    public static Checkpoint read(Path path, Problem problem) throws IOException {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            int version = (input.readInt() == MAGIC ? input.readInt() : -1);
+            if (version < 1 || version > VERSION) {
+                throw new IOException("Invalid checkpoint file: " + path);
+            }
+            if (input.readInt() != problem.n || input.readInt() != problem.m) {
+                throw new IOException("The checkpoint does not match the size of the instance.");
+            }
+
+            long iterations = input.readLong();
+            long iterationsInTemperature = input.readLong();
+            long time = input.readLong();
+            double temperature = input.readDouble();
+            double initialTemperature = (version >= 2 ? input.readDouble() : Double.NaN);
+            double finalTemperature = (version >= 2 ? input.readDouble() : 0.0);
+            byte[] random = new byte[input.readInt()];
+            input.readFully(random);
+            Solution solution = readSolution(input, problem);
+            Solution bestSolution = readSolution(input, problem);
+
+            return new Checkpoint(solution, bestSolution, temperature, initialTemperature, finalTemperature, iterations,
+                    iterationsInTemperature, time, random);
+        }
+    }
+
+    private static void writeSolution(DataOutputStream output, Problem problem, Solution solution) throws IOException {
+        for (int k = 0; k < problem.m; ++k) {
+            output.writeInt(solution.count(k));
+            for (int idx = 0; idx < solution.count(k); ++idx) {
+                output.writeInt(solution.get(k, idx));
+            }
+        }
+    }
+
+    private static Solution readSolution(DataInputStream input, Problem problem) throws IOException {
+        Solution solution = new Solution(problem);
+        for (int k = 0; k < problem.m; ++k) {
+            int count = input.readInt();
+            for (int idx = 0; idx < count; ++idx) {
+                int job = input.readInt();
+                if (job < 0 || job >= problem.n) {
+                    throw new IOException("Invalid job in checkpoint: " + job);
+                }
+                solution.add(job, k, false);
+            }
+        }
+        solution.update();
+
+        StringBuilder builder = new StringBuilder();
+        if (!solution.isFeasible(builder)) {
+            throw new IOException("Invalid solution in checkpoint: " + builder);
+        }
+
+        return solution;
+    }
+
+}
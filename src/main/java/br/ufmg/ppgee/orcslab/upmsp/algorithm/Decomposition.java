@@ -0,0 +1,298 @@
+package br.ufmg.ppgee.orcslab.upmsp.algorithm;
+
+import br.ufmg.ppgee.orcslab.upmsp.problem.Problem;
+import br.ufmg.ppgee.orcslab.upmsp.problem.Solution;
+import br.ufmg.ppgee.orcslab.upmsp.util.Comparator;
+import br.ufmg.ppgee.orcslab.upmsp.util.Timer;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decomposition algorithm for large instances. Starting from a solution of the whole problem,
+ * the machines are partitioned into groups, and each group (its machines and the jobs currently
+ * assigned to them) is solved as a subproblem by the {@link SimulatedAnnealing}, in parallel and
+ * starting from the current sequences, so the solution never gets worse. The solutions of the
+ * subproblems are joined, and the process is repeated for some rounds with other partitions, so
+ * jobs can move between any machines. Finally, the solution of the whole problem is refined by the
+ * simulated annealing. Since the subproblems are much smaller, each iteration of the simulated
+ * annealing is much cheaper on them.
+ * <p>
+ * In the first round, the machines are grouped by the setup times among their jobs (machines
+ * whose jobs have small setup times among them are in the same group); the next rounds use
+ * random partitions.
+ */
+public class Decomposition extends AbstractAlgorithm {
+
+    /**
+     * Implement the decomposition algorithm.
+     * @param problem The problem instance.
+     * @param random A random number generator.
+     * @param parameters Algorithm parameters.
+     * @param callback A callback object.
+     * @return A solution of the problem.
+     */
+    @Override
+    protected Solution doSolve(Problem problem, Random random, Map<String, Object> parameters, Callback callback) {
+
+        // Compute default time limit as in the simulated annealing
+        long defaultTime = problem.n * (problem.m / 2) * 50;
+
+        // Get heuristic parameters
+        long timeLimit = (long) parameters.getOrDefault("time-limit", defaultTime);
+        int groups = (int) parameters.getOrDefault("groups", Math.max(1, problem.m / 5));
+        int rounds = (int) parameters.getOrDefault("rounds", 5);
+        double decompositionTime = (double) parameters.getOrDefault("decomposition-time", 0.5);
+        int threads = (int) parameters.getOrDefault("threads", Runtime.getRuntime().availableProcessors());
+
+        // Each group must have at least two machines (the neighborhoods of the simulated annealing
+        // that move jobs between machines require them)
+        groups = Math.max(1, Math.min(groups, problem.m / 2));
+
+        // Create the start solution (by the greedy heuristic, by default)
+        Map<String, Object> initialParameters = new HashMap<>(parameters);
+        initialParameters.putIfAbsent("initial-heuristic", "greedy");
+        Comparator comparator = new Comparator();
+        Timer timer = new Timer(true);
+        Solution solution = createInitialSolution(problem, random, initialParameters);
+
+        // Notify callback about the initial solution
+        timer.stop();
+        callback.onNewIncumbent(new Solution(solution), 0L, timer.count(TimeUnit.NANOSECONDS));
+        timer.start();
+
+        // Parameters of the subproblems: each round gets the same share of the decomposition time
+        // (divided among the groups solved by the same thread)
+        long groupsPerThread = (groups + threads - 1) / threads;
+        Map<String, Object> subParameters = new HashMap<>(parameters);
+        subParameters.remove("target");
+        subParameters.remove("gap");
+        subParameters.remove("checkpoint-file");
+        subParameters.remove("resume");
+        subParameters.remove("threads");
+        subParameters.put("time-limit", (long) (timeLimit * decompositionTime / rounds / groupsPerThread));
+
+        // Solve the subproblems
+        for (int round = 1; round <= rounds && !Thread.currentThread().isInterrupted(); ++round) {
+            List<List<Integer>> partition = (round == 1 ? groupMachines(problem, solution, random, groups)
+                    : randomPartition(problem, random, groups));
+            Solution improved = solveGroups(problem, solution, partition, subParameters, random, threads);
+
+            // Update the incumbent solution
+            if (comparator.compare(improved, solution) < 0) {
+                solution = improved;
+
+                // Callback
+                timer.stop();
+                callback.onNewIncumbent(new Solution(solution), round, timer.count(TimeUnit.NANOSECONDS));
+                timer.start();
+            }
+        }
+
+        // Refine the solution of the whole problem in the remaining time
+        long elapsed = timer.count(TimeUnit.NANOSECONDS);
+        Map<String, Object> refineParameters = new HashMap<>(parameters);
+        refineParameters.put("initial-solution", solution);
+        refineParameters.put("time-limit", Math.max(0L, timeLimit - TimeUnit.NANOSECONDS.toMillis(elapsed)));
+        Solution bestSolution = new SimulatedAnnealing().solve(problem, random, refineParameters,
+                (incumbent, iteration, time) -> callback.onNewIncumbent(incumbent, rounds + iteration, elapsed + time));
+
+        // Return the best solution found
+        bestSolution.update();
+        return bestSolution;
+    }
+
+    /**
+     * Solve the subproblems defined by a partition of the machines, in parallel.
+     * @param problem The problem instance.
+     * @param solution The current solution (it is not changed).
+     * @param partition The groups of machines.
+     * @param parameters Parameters of the simulated annealing.
+     * @param random A random number generator.
+     * @param threads Number of threads.
+     * @return The solution with the subproblems' solutions.
+     */
+    private Solution solveGroups(Problem problem, Solution solution, List<List<Integer>> partition,
+                                 Map<String, Object> parameters, Random random, int threads) {
+
+        // Create the subproblems and their start solutions (the current sequences)
+        int groups = partition.size();
+        int[][] jobs = new int[groups][];
+        Problem[] subproblems = new Problem[groups];
+        Solution[] subsolutions = new Solution[groups];
+        List<Runnable> tasks = new ArrayList<>(groups);
+        for (int g = 0; g < groups; ++g) {
+            List<Integer> machines = partition.get(g);
+            int count = 0;
+            for (int machine : machines) {
+                count += solution.count(machine);
+            }
+
+            jobs[g] = new int[count];
+            count = 0;
+            for (int machine : machines) {
+                for (int idx = 0; idx < solution.count(machine); ++idx) {
+                    jobs[g][count++] = solution.get(machine, idx);
+                }
+            }
+            subproblems[g] = problem.subproblem(jobs[g], machines.stream().mapToInt(Integer::intValue).toArray());
+
+            // Groups without jobs or with a single machine are not solved
+            if (count == 0 || machines.size() < 2) {
+                continue;
+            }
+
+            Solution start = new Solution(subproblems[g]);
+            count = 0;
+            for (int k = 0; k < machines.size(); ++k) {
+                for (int idx = 0; idx < solution.count(machines.get(k)); ++idx) {
+                    start.add(count++, k, false);
+                }
+            }
+            start.update();
+
+            Map<String, Object> subParameters = new HashMap<>(parameters);
+            subParameters.put("initial-solution", start);
+            Random subRandom = new Random(random.nextLong());
+            int group = g;
+            tasks.add(() -> subsolutions[group] = new SimulatedAnnealing().solve(subproblems[group], subRandom,
+                    subParameters, null));
+        }
+        solveAll(tasks, threads);
+
+        // Join the solutions of the subproblems (the current sequences are kept for the groups
+        // that were not solved, e.g., due to an interruption)
+        Solution joined = new Solution(problem);
+        for (int g = 0; g < groups; ++g) {
+            List<Integer> machines = partition.get(g);
+            for (int k = 0; k < machines.size(); ++k) {
+                int machine = machines.get(k);
+                if (subsolutions[g] == null) {
+                    for (int idx = 0; idx < solution.count(machine); ++idx) {
+                        joined.add(solution.get(machine, idx), machine, false);
+                    }
+                } else {
+                    for (int idx = 0; idx < subsolutions[g].count(k); ++idx) {
+                        joined.add(jobs[g][subsolutions[g].get(k, idx)], machine, false);
+                    }
+                }
+            }
+        }
+        joined.update();
+        return joined;
+    }
+
+    /**
+     * Partition the machines into groups of (almost) the same size, in which the machines whose
+     * jobs have small setup times among them are in the same group. Each group starts with a random
+     * machine, and the closest machines are added to it.
+     * @param problem The problem instance.
+     * @param solution The current solution.
+     * @param random A random number generator.
+     * @param groups Number of groups.
+     * @return The groups of machines.
+     */
+    public static List<List<Integer>> groupMachines(Problem problem, Solution solution, Random random, int groups) {
+
+        // Distance between two machines: mean setup time between their jobs (in both directions
+        // and on both machines)
+        double[][] distance = new double[problem.m][problem.m];
+        for (int k1 = 0; k1 < problem.m; ++k1) {
+            for (int k2 = k1 + 1; k2 < problem.m; ++k2) {
+                long sum = 0L;
+                for (int idx1 = 0; idx1 < solution.count(k1); ++idx1) {
+                    int i = solution.get(k1, idx1);
+                    for (int idx2 = 0; idx2 < solution.count(k2); ++idx2) {
+                        int j = solution.get(k2, idx2);
+                        sum += problem.s[k1][i][j] + problem.s[k1][j][i] + problem.s[k2][i][j] + problem.s[k2][j][i];
+                    }
+                }
+                long pairs = (long) solution.count(k1) * solution.count(k2);
+                distance[k1][k2] = distance[k2][k1] = (pairs == 0 ? 0.0 : sum / (double) pairs);
+            }
+        }
+
+        // Build the groups around random machines
+        List<Integer> unassigned = new ArrayList<>();
+        for (int k = 0; k < problem.m; ++k) {
+            unassigned.add(k);
+        }
+        Collections.shuffle(unassigned, random);
+
+        List<List<Integer>> partition = new ArrayList<>(groups);
+        for (int g = 0; g < groups; ++g) {
+            int size = problem.m / groups + (g < problem.m % groups ? 1 : 0);
+            int seed = unassigned.remove(unassigned.size() - 1);
+            unassigned.sort((k1, k2) -> Double.compare(distance[seed][k1], distance[seed][k2]));
+
+            List<Integer> group = new ArrayList<>(size);
+            group.add(seed);
+            while (group.size() < size) {
+                group.add(unassigned.remove(0));
+            }
+            partition.add(group);
+            Collections.shuffle(unassigned, random);
+        }
+
+        return partition;
+    }
+
+    /**
+     * Partition the machines into random groups of (almost) the same size.
+     * @param problem The problem instance.
+     * @param random A random number generator.
+     * @param groups Number of groups.
+     * @return The groups of machines.
+     */
+    public static List<List<Integer>> randomPartition(Problem problem, Random random, int groups) {
+        List<Integer> machines = new ArrayList<>();
+        for (int k = 0; k < problem.m; ++k) {
+            machines.add(k);
+        }
+        Collections.shuffle(machines, random);
+
+        List<List<Integer>> partition = new ArrayList<>(groups);
+        int first = 0;
+        for (int g = 0; g < groups; ++g) {
+            int size = problem.m / groups + (g < problem.m % groups ? 1 : 0);
+            partition.add(new ArrayList<>(machines.subList(first, first + size)));
+            first += size;
+        }
+        return partition;
+    }
+
+    /**
+     * Run the tasks in parallel. If the current thread is interrupted, the tasks are interrupted
+     * as well.
+     * @param tasks The tasks.
+     * @param threads Number of threads.
+     */
+    private static void solveAll(List<Runnable> tasks, int threads) {
+        if (tasks.isEmpty()) {
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, tasks.size())));
+        try {
+            List<Future<?>> futures = new ArrayList<>(tasks.size());
+            for (Runnable task : tasks) {
+                futures.add(executor.submit(task));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+
+            // Keep the interrupted status and use the solutions found so far
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            throw new RuntimeException(e.getMessage(), e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+}
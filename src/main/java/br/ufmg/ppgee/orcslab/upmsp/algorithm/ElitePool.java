@@ -0,0 +1,201 @@
+package br.ufmg.ppgee.orcslab.upmsp.algorithm;
+
+import br.ufmg.ppgee.orcslab.upmsp.problem.Problem;
+import br.ufmg.ppgee.orcslab.upmsp.problem.Solution;
+import br.ufmg.ppgee.orcslab.upmsp.util.Comparator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Pool of elite solutions: the best solutions found that differ from each other. The difference
+ * between two solutions is the number of jobs assigned to different machines (Hamming distance of
+ * the assignments). A solution closer than a minimum distance to an elite solution may only
+ * replace it, if it is better. Otherwise, the solution enters the pool if it is not full or if it
+ * is better than the worst elite solution; in this case, it replaces the most similar elite
+ * solution among the ones worse than it. The distances among the elite solutions are kept, so
+ * only the distances from a new solution are computed.
+ * <p>
+ * The pool is thread-safe, so it can be shared by algorithms that run concurrently (see
+ * {@link Portfolio}).
+ */
+public class ElitePool {
+
+    private final Problem problem;
+    private final int capacity;
+    private final int minDistance;
+    private final Comparator comparator;
+
+    // Elite solutions, their assignments and the distances among them
+    private final List<Solution> elites;
+    private final int[][] assignments;
+    private final int[][] distances;
+
+    // Buffer with the distances from a new solution
+    private final int[] buffer;
+
+    /**
+     * Constructor.
+     * @param problem The problem instance.
+     * @param capacity Maximum number of elite solutions.
+     * @param minDistance Minimum number of jobs assigned to different machines in a new solution
+     *                    and in each elite solution.
+     */
+    public ElitePool(Problem problem, int capacity, int minDistance) {
+        this.problem = problem;
+        this.capacity = Math.max(1, capacity);
+        this.minDistance = Math.max(1, minDistance);
+        this.comparator = new Comparator();
+        this.elites = new ArrayList<>(this.capacity);
+        this.assignments = new int[this.capacity][problem.n];
+        this.distances = new int[this.capacity][this.capacity];
+        this.buffer = new int[this.capacity];
+    }
+
+    /**
+     * Try to insert a solution (a copy of it is stored).
+     * @param solution The solution.
+     * @return True if the solution is inserted.
+     */
+    public synchronized boolean add(Solution solution) {
+        solution.update();
+
+        // A solution worse than all elite solutions of a full pool is rejected without computing
+        // the distances
+        int size = elites.size();
+        int worst = worst();
+        if (size == capacity && comparator.compare(solution, elites.get(worst)) >= 0) {
+            return false;
+        }
+
+        // Distances from the solution to the elite solutions, the closest elite solution and the
+        // most similar elite solution among the ones worse than the new solution
+        int closest = -1;
+        int replaced = -1;
+        for (int idx = 0; idx < size; ++idx) {
+            int distance = 0;
+            int[] assignment = assignments[idx];
+            for (int job = 0; job < problem.n; ++job) {
+                if (assignment[job] != solution.getAssignment(job)) {
+                    ++distance;
+                }
+            }
+            buffer[idx] = distance;
+
+            if (closest < 0 || distance < buffer[closest]) {
+                closest = idx;
+            }
+            if (comparator.compare(solution, elites.get(idx)) < 0 && (replaced < 0 || distance < buffer[replaced])) {
+                replaced = idx;
+            }
+        }
+
+        // Position of the solution in the pool: a solution too close to an elite solution may
+        // only replace it, and the other ones replace the most similar worse elite solution if
+        // the pool is full
+        int position;
+        if (closest >= 0 && buffer[closest] < minDistance) {
+            if (comparator.compare(solution, elites.get(closest)) >= 0) {
+                return false;
+            }
+            position = closest;
+        } else if (size < capacity) {
+            position = size;
+        } else {
+            position = replaced;
+        }
+
+        // Insert the solution
+        if (position == size) {
+            elites.add(new Solution(solution));
+        } else {
+            elites.set(position, new Solution(solution));
+        }
+        for (int job = 0; job < problem.n; ++job) {
+            assignments[position][job] = solution.getAssignment(job);
+        }
+        for (int idx = 0; idx < elites.size(); ++idx) {
+            int distance = (idx == position ? 0 : buffer[idx]);
+            distances[position][idx] = distance;
+            distances[idx][position] = distance;
+        }
+        return true;
+    }
+
+    /**
+     * Return the number of elite solutions.
+     * @return The number of elite solutions.
+     */
+    public synchronized int size() {
+        return elites.size();
+    }
+
+    /**
+     * Return a copy of the best elite solution.
+     * @return The best elite solution, or null if the pool is empty.
+     */
+    public synchronized Solution getBest() {
+        Solution best = null;
+        for (Solution elite : elites) {
+            if (best == null || comparator.compare(elite, best) < 0) {
+                best = elite;
+            }
+        }
+        return (best == null ? null : new Solution(best));
+    }
+
+    /**
+     * Return a copy of an elite solution chosen at random, with probability proportional to its
+     * mean distance to the other elite solutions (so the most different ones are preferred as
+     * guides of the path relinking).
+     * @param random A random number generator.
+     * @return An elite solution, or null if the pool is empty.
+     */
+    public synchronized Solution select(Random random) {
+        int size = elites.size();
+        if (size == 0) {
+            return null;
+        }
+
+        long total = 0L;
+        for (int a = 0; a < size; ++a) {
+            for (int b = 0; b < size; ++b) {
+                total += distances[a][b];
+            }
+        }
+        if (total == 0L) {
+            return new Solution(elites.get(random.nextInt(size)));
+        }
+
+        long value = (long) (random.nextDouble() * total);
+        for (int a = 0; a < size; ++a) {
+            for (int b = 0; b < size; ++b) {
+                value -= distances[a][b];
+            }
+            if (value < 0L) {
+                return new Solution(elites.get(a));
+            }
+        }
+        return new Solution(elites.get(size - 1));
+    }
+
+
+    // --------------------------------------------------------------------------------------------
+    // Auxiliary methods
+    // --------------------------------------------------------------------------------------------
+
+    /**
+     * Return the index of the worst elite solution (or -1 if the pool is empty).
+     */
+    private int worst() {
+        int worst = -1;
+        for (int idx = 0; idx < elites.size(); ++idx) {
+            if (worst < 0 || comparator.compare(elites.get(idx), elites.get(worst)) > 0) {
+                worst = idx;
+            }
+        }
+        return worst;
+    }
+
+}
@@ -0,0 +1,183 @@
+package br.ufmg.ppgee.orcslab.upmsp.algorithm;
+
+import br.ufmg.ppgee.orcslab.upmsp.algorithm.stop.StopCondition;
+import br.ufmg.ppgee.orcslab.upmsp.algorithm.stop.StopConditions;
+import br.ufmg.ppgee.orcslab.upmsp.problem.Problem;
+import br.ufmg.ppgee.orcslab.upmsp.problem.Solution;
+import br.ufmg.ppgee.orcslab.upmsp.util.Comparator;
+import br.ufmg.ppgee.orcslab.upmsp.util.Timer;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This heuristic implements the constructive phase of a GRASP (Greedy Randomized Adaptive Search
+ * Procedure). At each step, a job (in random order) is inserted into a position selected at random
+ * from a restricted candidate list (RCL) with the insertions whose completion time is within
+ * {@code min + alpha * (max - min)}. The construction is repeated several times, possibly in
+ * parallel, and the best solution built is returned.
+ */
+public class GraspHeuristic extends AbstractAlgorithm {
+
+    /**
+     * Implement the GRASP constructive heuristic.
+     * @param problem The problem instance.
+     * @param random A random number generator.
+     * @param parameters Algorithm parameters.
+     * @param callback A callback object.
+     * @return A solution of the problem.
+     */
+    @Override
+    protected Solution doSolve(Problem problem, Random random, Map<String, Object> parameters, Callback callback) {
+
+        // Get heuristic parameters
+        double alpha = (double) parameters.getOrDefault("alpha", 0.3);
+        int threads = (int) parameters.getOrDefault("threads", 1);
+
+        // Stop conditions (by default, 100 solutions are built)
+        StopCondition stopCondition = StopConditions.fromParameters(problem, parameters, Long.MAX_VALUE, 100L);
+
+        // Shared state among the threads
+        Comparator comparator = new Comparator();
+        Timer timer = new Timer(true);
+        long[] iterations = new long[1];
+        Solution[] bestSolution = new Solution[1];
+
+        // Each worker builds solutions until the limits are reached
+        List<Runnable> workers = new ArrayList<>(threads);
+        for (int t = 0; t < threads; ++t) {
+            Random workerRandom = new Random(random.nextLong());
+            workers.add(() -> {
+                while (true) {
+
+                    // Check the stop conditions and count the iteration
+                    long iteration;
+                    synchronized (bestSolution) {
+                        if (stopCondition.isSatisfied(iterations[0], timer.count())) {
+                            break;
+                        }
+                        iteration = ++iterations[0];
+                    }
+
+                    // Build a solution and update the incumbent one
+                    Solution solution = construct(problem, workerRandom, alpha);
+                    synchronized (bestSolution) {
+                        if (bestSolution[0] == null || comparator.compare(solution, bestSolution[0]) < 0) {
+                            bestSolution[0] = solution;
+                            callback.onNewIncumbent(new Solution(solution), iteration, timer.count(TimeUnit.NANOSECONDS));
+                            stopCondition.onNewIncumbent(iteration, timer.count(), solution.getMakespan());
+                        }
+                    }
+                }
+            });
+        }
+
+        // Run the workers (the current thread is used if only one worker is required)
+        if (threads <= 1) {
+            workers.get(0).run();
+        } else {
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                List<Future<?>> futures = new ArrayList<>(threads);
+                for (Runnable worker : workers) {
+                    futures.add(executor.submit(worker));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } catch (InterruptedException e) {
+
+                // Keep the interrupted status and return the best solution built so far
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                throw new RuntimeException(e.getMessage(), e);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        // Make sure at least one solution is built
+        synchronized (bestSolution) {
+            if (bestSolution[0] == null) {
+                bestSolution[0] = construct(problem, random, alpha);
+            }
+
+            // Return the best solution found
+            bestSolution[0].update();
+            return bestSolution[0];
+        }
+    }
+
+    /**
+     * Build a solution using the greedy randomized strategy.
+     * @param problem The problem instance.
+     * @param random A random number generator.
+     * @param alpha Parameter that controls the size of the restricted candidate list (0 means
+     *              purely greedy and 1 means purely random).
+     * @return A solution of the problem.
+     */
+    public static Solution construct(Problem problem, Random random, double alpha) {
+
+        // Create an empty solution
+        Solution solution = new Solution(problem);
+
+        // Create a random order of jobs
+        int[] jobs = new int[problem.n];
+        for (int j = 0; j < problem.n; ++j) {
+            jobs[j] = j;
+        }
+
+        for (int i = problem.n - 1; i > 0; --i) {
+            int r = random.nextInt(i + 1);
+            int tmp = jobs[i];
+            jobs[i] = jobs[r];
+            jobs[r] = tmp;
+        }
+
+        // Buffers with the candidate insertions
+        int[] candidateMachine = new int[problem.n + problem.m];
+        int[] candidatePosition = new int[problem.n + problem.m];
+        int[] candidateCompletion = new int[problem.n + problem.m];
+
+        // Schedule jobs
+        for (int job : jobs) {
+
+            // Evaluate all insertions
+            int count = 0;
+            int min = Integer.MAX_VALUE;
+            int max = Integer.MIN_VALUE;
+            for (int k = 0; k < problem.m; ++k) {
+                for (int position = 0; position <= solution.count(k); ++position) {
+                    int completion = solution.getMakespan(k) + solution.getCostAdd(job, k, position);
+                    candidateMachine[count] = k;
+                    candidatePosition[count] = position;
+                    candidateCompletion[count] = completion;
+                    min = Math.min(min, completion);
+                    max = Math.max(max, completion);
+                    ++count;
+                }
+            }
+
+            // Choose an insertion from the restricted candidate list
+            double threshold = min + alpha * (max - min);
+            int rclSize = 0;
+            for (int idx = 0; idx < count; ++idx) {
+                if (candidateCompletion[idx] <= threshold) {
+                    candidateMachine[rclSize] = candidateMachine[idx];
+                    candidatePosition[rclSize] = candidatePosition[idx];
+                    ++rclSize;
+                }
+            }
+
+            int chosen = random.nextInt(rclSize);
+            solution.add(job, candidateMachine[chosen], candidatePosition[chosen], false);
+        }
+
+        // Update solution attributes
+        solution.update();
+        return solution;
+    }
+}
@@ -0,0 +1,57 @@
+package br.ufmg.ppgee.orcslab.upmsp.algorithm;
+
+import br.ufmg.ppgee.orcslab.upmsp.problem.Problem;
+import br.ufmg.ppgee.orcslab.upmsp.problem.Solution;
+import br.ufmg.ppgee.orcslab.upmsp.util.Insertion;
+
+import java.util.*;
+
+/**
+ * This heuristic creates a solution for the unrelated parallel machine scheduling problem with
+ * setup times dependent on the sequence and machine by inserting the jobs, one by one, at the
+ * position (among all positions of all machines) that results in the earliest completion time,
+ * similarly to the initialization procedure described in [1]. The jobs are inserted in decreasing
+ * order of their shortest processing time, so that long jobs are scheduled first.
+ *
+ * <p>[1] Vallada and Ruiz. A genetic algorithm for the unrelated parallel machine scheduling
+ * problem with sequence dependent setup times. European Journal of Operational Research 211,
+ * 3, pp. 612-622, 2011.
+ */
+public class GreedyHeuristic extends AbstractAlgorithm {
+
+    @Override
+    protected Solution doSolve(Problem problem, Random random, Map<String, Object> parameters, Callback callback) {
+
+        // Create an empty solution
+        Solution solution = new Solution(problem);
+
+        // Sort the jobs in decreasing order of their shortest processing time
+        int[] shortest = new int[problem.n];
+        List<Integer> jobs = new ArrayList<>(problem.n);
+        for (int j = 0; j < problem.n; ++j) {
+            shortest[j] = Integer.MAX_VALUE;
+            for (int k = 0; k < problem.m; ++k) {
+                shortest[j] = Math.min(shortest[j], problem.p[k][j]);
+            }
+            jobs.add(j);
+        }
+
+        jobs.sort((j1, j2) -> Integer.compare(shortest[j2], shortest[j1]));
+
+        // Schedule jobs
+        Insertion insertion = new Insertion();
+        for (int job : jobs) {
+            Insertion.best(problem, solution, job, insertion);
+            solution.add(job, insertion.machine, insertion.position, false);
+        }
+
+        // Update solution attibutes
+        solution.update();
+
+        // Notify callback about the solution
+        callback.onNewIncumbent(new Solution(solution), 0L, 0L);
+
+        // Return the solution
+        return solution;
+    }
+}
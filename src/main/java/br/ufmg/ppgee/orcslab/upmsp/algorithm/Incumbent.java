@@ -0,0 +1,36 @@
+package br.ufmg.ppgee.orcslab.upmsp.algorithm;
+
+import br.ufmg.ppgee.orcslab.upmsp.problem.Solution;
+
+/**
+ * Auxiliary class to store an incumbent solution reported by an algorithm.
+ */
+public class Incumbent {
+
+    /**
+     * The incumbent solution.
+     */
+    public final Solution solution;
+
+    /**
+     * Iteration in which the solution was found.
+     */
+    public final long iteration;
+
+    /**
+     * Time (in nanoseconds) in which the solution was found.
+     */
+    public final long time;
+
+    /**
+     * Constructor.
+     * @param solution The incumbent solution.
+     * @param iteration Iteration in which the solution was found.
+     * @param time Time (in nanoseconds) in which the solution was found.
+     */
+    public Incumbent(Solution solution, long iteration, long time) {
+        this.solution = solution;
+        this.iteration = iteration;
+        this.time = time;
+    }
+}
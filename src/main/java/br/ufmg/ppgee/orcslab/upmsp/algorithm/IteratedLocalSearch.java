@@ -0,0 +1,133 @@
+package br.ufmg.ppgee.orcslab.upmsp.algorithm;
+
+import br.ufmg.ppgee.orcslab.upmsp.algorithm.stop.StopCondition;
+import br.ufmg.ppgee.orcslab.upmsp.algorithm.stop.StopConditions;
+import br.ufmg.ppgee.orcslab.upmsp.neighborhood.Neighborhood;
+import br.ufmg.ppgee.orcslab.upmsp.problem.Problem;
+import br.ufmg.ppgee.orcslab.upmsp.problem.Solution;
+import br.ufmg.ppgee.orcslab.upmsp.util.Comparator;
+import br.ufmg.ppgee.orcslab.upmsp.util.Timer;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This algorithm implements an Iterated Local Search (ILS) that uses a Variable Neighborhood
+ * Descent (VND) as local search. The VND walks the list of neighborhoods in a given order and
+ * applies the best move involving the makespan machine (see
+ * {@link Neighborhood#getBestNeighbor(Problem, Solution, int)}). Whenever an improvement is found,
+ * the VND restarts from the first neighborhood, and it stops when no neighborhood is able to
+ * improve the solution (i.e., a local optimum is reached). The local optimum is then perturbed
+ * by a few random moves (see {@link Neighborhood#getAnyNeighbor(Problem, Solution, Random, int)})
+ * and the process is repeated.
+ */
+public class IteratedLocalSearch extends AbstractAlgorithm {
+
+    /**
+     * Implement the iterated local search.
+     * @param problem The problem instance.
+     * @param random A random number generator.
+     * @param parameters Algorithm parameters.
+     * @param callback A callback object.
+     * @return A solution of the problem.
+     */
+    @Override
+    protected Solution doSolve(Problem problem, Random random, Map<String, Object> parameters, Callback callback) {
+
+        // Compute default time limit as in the simulated annealing
+        long defaultTime = problem.n * (problem.m / 2) * 50;
+
+        // Get heuristic parameters
+        int perturbationStrength = (int) parameters.getOrDefault("perturbation-strength", 2);
+
+        // Stop conditions (time limit, iterations limit, target makespan, etc.)
+        StopCondition stopCondition = StopConditions.fromParameters(problem, parameters, defaultTime, Long.MAX_VALUE);
+
+        // List of neighborhoods in the order they are explored by the VND (cheapest first)
+        List<Neighborhood> neighborhoods = createNeighborhoods(parameters,
+                "shift", "switch", "task-move", "direct-swap", "swap", "two-shift");
+
+        // Create the start solution
+        Comparator comparator = new Comparator();
+        Timer timer = new Timer(true);
+        Solution solution = createInitialSolution(problem, random, parameters);
+
+        // Apply the local search to the start solution
+        solution = descent(problem, solution, neighborhoods, stopCondition, 0L, timer);
+        Solution bestSolution = new Solution(solution);
+
+        // Notify callback and stop conditions about the initial solution
+        timer.stop();
+        callback.onNewIncumbent(new Solution(bestSolution), 0L, timer.count(TimeUnit.NANOSECONDS));
+        stopCondition.onNewIncumbent(0L, timer.count(), bestSolution.getMakespan());
+        timer.start();
+
+        // Main loop: stop when any stop condition is satisfied
+        long iteration = 0L;
+        while (!stopCondition.isSatisfied(iteration, timer.count())) {
+            ++iteration;
+
+            // Perturbation: apply some random moves
+            Solution trialSolution = solution;
+            for (int kick = 0; kick < perturbationStrength; ++kick) {
+                Neighborhood neighborhood = neighborhoods.get(random.nextInt(neighborhoods.size()));
+                int target = random.nextBoolean() ? trialSolution.getMakespanMachine() : random.nextInt(problem.m);
+                trialSolution = neighborhood.getAnyNeighbor(problem, trialSolution, random, target);
+            }
+
+            // Local search (the stop condition is checked with the iterations completed, so the
+            // last iteration also gets its local search)
+            trialSolution = descent(problem, trialSolution, neighborhoods, stopCondition, iteration - 1, timer);
+
+            // Acceptance criterion: accept the local optimum if it is not worse than the current one
+            if (comparator.compare(trialSolution, solution) <= 0) {
+                solution = trialSolution;
+
+                // Update the incumbent solution
+                if (comparator.compare(solution, bestSolution) < 0) {
+                    bestSolution = new Solution(solution);
+
+                    // Callback
+                    timer.stop();
+                    callback.onNewIncumbent(new Solution(bestSolution), iteration, timer.count(TimeUnit.NANOSECONDS));
+                    stopCondition.onNewIncumbent(iteration, timer.count(), bestSolution.getMakespan());
+                    timer.start();
+                }
+            }
+        }
+
+        // Return the best solution found
+        bestSolution.update();
+        return bestSolution;
+    }
+
+    /**
+     * Variable neighborhood descent: apply the best move of the neighborhoods (in the given order)
+     * until a local optimum is reached or the stop condition is satisfied.
+     * @param problem The problem instance.
+     * @param solution The start solution.
+     * @param neighborhoods The neighborhoods in the order they are explored.
+     * @param stopCondition Stop condition of the algorithm.
+     * @param iteration Number of iterations completed by the algorithm (the iteration in which
+     *                  the stop condition was last checked by its main loop).
+     * @param timer Timer of the algorithm.
+     * @return The local optimum.
+     */
+    public static Solution descent(Problem problem, Solution solution, List<Neighborhood> neighborhoods,
+                                   StopCondition stopCondition, long iteration, Timer timer) {
+        Comparator comparator = new Comparator();
+        int idx = 0;
+        while (idx < neighborhoods.size() && !stopCondition.isSatisfied(iteration, timer.count())) {
+            solution.update();
+            Solution neighbor = neighborhoods.get(idx).getBestNeighbor(problem, solution, solution.getMakespanMachine());
+            if (comparator.compare(neighbor, solution) < 0) {
+                solution = neighbor;
+                idx = 0;
+            } else {
+                ++idx;
+            }
+        }
+        return solution;
+    }
+
+}
@@ -0,0 +1,413 @@
+package br.ufmg.ppgee.orcslab.upmsp.algorithm;
+
+import br.ufmg.ppgee.orcslab.upmsp.algorithm.stop.StopCondition;
+import br.ufmg.ppgee.orcslab.upmsp.algorithm.stop.StopConditions;
+import br.ufmg.ppgee.orcslab.upmsp.neighborhood.Neighborhood;
+import br.ufmg.ppgee.orcslab.upmsp.problem.Problem;
+import br.ufmg.ppgee.orcslab.upmsp.problem.Solution;
+import br.ufmg.ppgee.orcslab.upmsp.util.Comparator;
+import br.ufmg.ppgee.orcslab.upmsp.util.Insertion;
+import br.ufmg.ppgee.orcslab.upmsp.util.Timer;
+
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This algorithm implements a Large Neighborhood Search (LNS) [1]. At each iteration, a subset of
+ * jobs is removed from the current solution (destroy) and inserted again (repair). The jobs
+ * removed are chosen at random, by their relatedness (the setup times between them and a seed
+ * job, as in [1]) or from the makespan machine. They are inserted either one by one in random
+ * order at their best insertion (see {@link Insertion}), or by the regret-k insertion, which
+ * inserts first the job whose best insertion is the most worse than its k - 1 next best ones on
+ * other machines. Several destroy and repair operations are performed from the current solution,
+ * possibly in parallel, and the best solution built (optionally improved by the descent of the
+ * {@link IteratedLocalSearch}) is accepted if it is not worse than the current solution.
+ * <p>
+ * Since several jobs are moved at once, the search makes larger changes to the solution than the
+ * neighborhoods of single jobs, which helps to escape from the local optima of large instances.
+ *
+ * <p>[1] Shaw. Using constraint programming and local search methods to solve vehicle routing
+ * problems. Principles and Practice of Constraint Programming (CP98), pp. 417-431, 1998.
+ */
+public class LargeNeighborhoodSearch extends AbstractAlgorithm {
+
+    /**
+     * Implement the large neighborhood search.
+     * @param problem The problem instance.
+     * @param random A random number generator.
+     * @param parameters Algorithm parameters.
+     * @param callback A callback object.
+     * @return A solution of the problem.
+     */
+    @Override
+    protected Solution doSolve(Problem problem, Random random, Map<String, Object> parameters, Callback callback) {
+
+        // Compute default time limit as in the simulated annealing
+        long defaultTime = problem.n * (problem.m / 2) * 50;
+
+        // Get heuristic parameters
+        double removalRate = (double) parameters.getOrDefault("removal-rate", 0.1);
+        int maxRemoval = (int) parameters.getOrDefault("max-removal", 20);
+        int repairs = (int) parameters.getOrDefault("repairs", 4);
+        int regret = (int) parameters.getOrDefault("regret", 2);
+        boolean localSearch = (boolean) parameters.getOrDefault("local-search", false);
+        int threads = (int) parameters.getOrDefault("threads", 1);
+        List<String> destroyOperators = (List<String>) parameters.getOrDefault("destroy",
+                Arrays.asList("random", "related", "makespan-machine"));
+        List<String> repairOperators = (List<String>) parameters.getOrDefault("repair",
+                Arrays.asList("greedy", "regret"));
+
+        // Number of jobs removed: between 2 and the given rate of the jobs
+        int minRemoval = Math.min(2, problem.n);
+        int removalLimit = Math.max(minRemoval, Math.min(maxRemoval, (int) Math.round(removalRate * problem.n)));
+
+        // Stop conditions (time limit, iterations limit, target makespan, etc.)
+        StopCondition stopCondition = StopConditions.fromParameters(problem, parameters, defaultTime, Long.MAX_VALUE);
+
+        // List of neighborhoods in the order they are explored by the descent
+        List<Neighborhood> neighborhoods = createNeighborhoods(parameters,
+                "shift", "switch", "task-move", "direct-swap", "swap", "two-shift");
+
+        // Create the start solution
+        Comparator comparator = new Comparator();
+        Timer timer = new Timer(true);
+        Solution solution = createInitialSolution(problem, random, parameters);
+        solution.update();
+        Solution bestSolution = new Solution(solution);
+
+        // Notify callback and stop conditions about the initial solution
+        timer.stop();
+        callback.onNewIncumbent(new Solution(bestSolution), 0L, timer.count(TimeUnit.NANOSECONDS));
+        stopCondition.onNewIncumbent(0L, timer.count(), bestSolution.getMakespan());
+        timer.start();
+
+        // The repairs are performed in parallel if more than one thread is available
+        ExecutorService executor = (threads > 1 && repairs > 1 ? Executors.newFixedThreadPool(Math.min(threads, repairs)) : null);
+        List<Callable<Solution>> tasks = new ArrayList<>(repairs);
+
+        try {
+
+            // Main loop: stop when any stop condition is satisfied
+            long iteration = 0L;
+            while (!stopCondition.isSatisfied(iteration, timer.count())) {
+                ++iteration;
+
+                // Destroy and repair copies of the current solution, each one with its own
+                // random number generator (so the results do not depend on the number of threads)
+                tasks.clear();
+                for (int r = 0; r < repairs; ++r) {
+                    Solution current = solution;
+                    Random taskRandom = new Random(random.nextLong());
+                    String destroy = destroyOperators.get(taskRandom.nextInt(destroyOperators.size()));
+                    String repair = repairOperators.get(taskRandom.nextInt(repairOperators.size()));
+                    int count = minRemoval + taskRandom.nextInt(removalLimit - minRemoval + 1);
+                    tasks.add(() -> {
+                        Solution candidate = new Solution(current);
+                        int[] removed = destroy(problem, candidate, destroy, count, taskRandom);
+                        repair(problem, candidate, removed, repair, regret, taskRandom);
+                        return candidate;
+                    });
+                }
+                Solution trialSolution = runAll(tasks, executor, comparator);
+                if (trialSolution == null) {
+                    break;
+                }
+
+                // Local search (with the iterations completed, as in the iterated local search)
+                if (localSearch) {
+                    trialSolution = IteratedLocalSearch.descent(problem, trialSolution, neighborhoods, stopCondition,
+                            iteration - 1, timer);
+                }
+
+                // Acceptance criterion: accept the new solution if it is not worse than the
+                // current one
+                if (comparator.compare(trialSolution, solution) <= 0) {
+                    solution = trialSolution;
+
+                    // Update the incumbent solution
+                    if (comparator.compare(solution, bestSolution) < 0) {
+                        bestSolution = new Solution(solution);
+
+                        // Callback
+                        timer.stop();
+                        callback.onNewIncumbent(new Solution(bestSolution), iteration, timer.count(TimeUnit.NANOSECONDS));
+                        stopCondition.onNewIncumbent(iteration, timer.count(), bestSolution.getMakespan());
+                        timer.start();
+                    }
+                }
+            }
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+
+        // Return the best solution found
+        bestSolution.update();
+        return bestSolution;
+    }
+
+
+    // --------------------------------------------------------------------------------------------
+    // Auxiliary methods
+    // --------------------------------------------------------------------------------------------
+
+    /**
+     * Run the destroy and repair tasks, in parallel if an executor is given, and return the best
+     * solution built. If the current thread is interrupted, null is returned.
+     * @param tasks The tasks.
+     * @param executor Executor used to run the tasks (or null to run them in the current thread).
+     * @param comparator Comparator of solutions.
+     * @return The best solution built or null if the current thread is interrupted.
+     */
+    private static Solution runAll(List<Callable<Solution>> tasks, ExecutorService executor, Comparator comparator) {
+        Solution best = null;
+        try {
+            if (executor == null) {
+                for (Callable<Solution> task : tasks) {
+                    Solution solution = task.call();
+                    if (best == null || comparator.compare(solution, best) < 0) {
+                        best = solution;
+                    }
+                }
+            } else {
+                for (Future<Solution> future : executor.invokeAll(tasks)) {
+                    Solution solution = future.get();
+                    if (best == null || comparator.compare(solution, best) < 0) {
+                        best = solution;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+
+            // Keep the interrupted status and stop the search
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause().getMessage(), e.getCause());
+        } catch (Exception e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+        return best;
+    }
+
+    /**
+     * Remove jobs from a solution.
+     * @param problem The problem instance.
+     * @param solution The solution (it is modified).
+     * @param operator Name of the destroy operator: {@code random}, {@code related} or
+     *                 {@code makespan-machine}.
+     * @param count Number of jobs to remove.
+     * @param random A random number generator.
+     * @return The jobs removed.
+     */
+    public static int[] destroy(Problem problem, Solution solution, String operator, int count, Random random) {
+        count = Math.min(count, problem.n);
+        int[] removed = new int[count];
+        boolean[] selected = new boolean[problem.n];
+
+        switch (operator) {
+
+            case "random":
+                for (int idx = 0; idx < count; ++idx) {
+                    removed[idx] = randomJob(problem, selected, random);
+                }
+                break;
+
+            case "related": {
+
+                // Jobs sorted by the setup times between them and a seed job, on the machine of
+                // the seed job (the closest ones are the most related)
+                int seed = random.nextInt(problem.n);
+                int k = solution.getAssignment(seed);
+                Integer[] jobs = new Integer[problem.n];
+                for (int j = 0; j < problem.n; ++j) {
+                    jobs[j] = j;
+                }
+                Arrays.sort(jobs, (a, b) -> Integer.compare(
+                        a == seed ? -1 : problem.s[k][seed][a] + problem.s[k][a][seed],
+                        b == seed ? -1 : problem.s[k][seed][b] + problem.s[k][b][seed]));
+
+                // Choose the jobs at random, biased towards the most related ones
+                int size = problem.n;
+                for (int idx = 0; idx < count; ++idx) {
+                    double y = random.nextDouble();
+                    int position = (idx == 0 ? 0 : (int) (y * y * y * size));
+                    removed[idx] = jobs[position];
+                    System.arraycopy(jobs, position + 1, jobs, position, size - position - 1);
+                    --size;
+                }
+                break;
+            }
+
+            case "makespan-machine": {
+
+                // Jobs of the makespan machine first (in random order), then random jobs
+                solution.update();
+                int k = solution.getMakespanMachine();
+                int idx = 0;
+                while (idx < count && idx < solution.count(k)) {
+                    int job = solution.get(k, random.nextInt(solution.count(k)));
+                    if (!selected[job]) {
+                        selected[job] = true;
+                        removed[idx++] = job;
+                    }
+                }
+                while (idx < count) {
+                    removed[idx++] = randomJob(problem, selected, random);
+                }
+                break;
+            }
+
+            default:
+                throw new IllegalArgumentException("Unknown destroy operator: " + operator);
+        }
+
+        // Remove the jobs
+        for (int job : removed) {
+            int k = solution.getAssignment(job);
+            int position = 0;
+            while (solution.get(k, position) != job) {
+                ++position;
+            }
+            solution.remove(k, position, false);
+        }
+        solution.update();
+        return removed;
+    }
+
+    /**
+     * Insert the jobs removed from a solution again.
+     * @param problem The problem instance.
+     * @param solution The solution (it is modified).
+     * @param removed The jobs to insert.
+     * @param operator Name of the repair operator: {@code greedy} (each job, in random order, is
+     *                 inserted at its best insertion) or {@code regret} (regret-k insertion).
+     * @param regret Number of machines considered by the regret-k insertion.
+     * @param random A random number generator.
+     */
+    public static void repair(Problem problem, Solution solution, int[] removed, String operator, int regret,
+                              Random random) {
+        switch (operator) {
+
+            case "greedy": {
+                int[] jobs = removed.clone();
+                for (int i = jobs.length - 1; i > 0; --i) {
+                    int r = random.nextInt(i + 1);
+                    int tmp = jobs[i];
+                    jobs[i] = jobs[r];
+                    jobs[r] = tmp;
+                }
+
+                Insertion insertion = new Insertion();
+                for (int job : jobs) {
+                    Insertion.best(problem, solution, job, insertion);
+                    solution.add(job, insertion.machine, insertion.position, false);
+                }
+                break;
+            }
+
+            case "regret":
+                regretInsertion(problem, solution, removed, Math.max(1, Math.min(regret, problem.m)));
+                break;
+
+            default:
+                throw new IllegalArgumentException("Unknown repair operator: " + operator);
+        }
+        solution.update();
+    }
+
+    /**
+     * Regret-k insertion: at each step, the best insertion of each job on each machine is
+     * evaluated, and the job with the largest regret (the sum of the differences between the
+     * completion time of its best insertion and the ones of its best insertions on the next k - 1
+     * machines) is inserted at its best insertion. Ties are broken by the earliest completion.
+     */
+    private static void regretInsertion(Problem problem, Solution solution, int[] removed, int regret) {
+        List<Integer> pending = new ArrayList<>(removed.length);
+        for (int job : removed) {
+            pending.add(job);
+        }
+
+        // Buffers with the best completion time on each machine
+        int[] completion = new int[problem.m];
+        int[] best = new int[regret];
+
+        while (!pending.isEmpty()) {
+            int chosen = -1;
+            long chosenRegret = -1L;
+            int chosenCompletion = Integer.MAX_VALUE;
+            int chosenMachine = -1;
+            int chosenPosition = -1;
+
+            for (int idx = 0; idx < pending.size(); ++idx) {
+                int job = pending.get(idx);
+                int bestMachine = -1;
+                int bestPosition = -1;
+                int bestCompletion = Integer.MAX_VALUE;
+
+                // Best insertion of the job on each machine
+                for (int k = 0; k < problem.m; ++k) {
+                    completion[k] = Integer.MAX_VALUE;
+                    int makespan = solution.getMakespan(k);
+                    for (int position = 0; position <= solution.count(k); ++position) {
+                        int value = makespan + solution.getCostAdd(job, k, position);
+                        if (value < completion[k]) {
+                            completion[k] = value;
+                            if (value < bestCompletion) {
+                                bestMachine = k;
+                                bestPosition = position;
+                                bestCompletion = value;
+                            }
+                        }
+                    }
+                }
+
+                // The k smallest completion times (in ascending order)
+                Arrays.fill(best, Integer.MAX_VALUE);
+                for (int k = 0; k < problem.m; ++k) {
+                    int value = completion[k];
+                    for (int i = 0; i < regret; ++i) {
+                        if (value < best[i]) {
+                            int tmp = best[i];
+                            best[i] = value;
+                            value = tmp;
+                        }
+                    }
+                }
+                long value = 0L;
+                for (int i = 1; i < regret; ++i) {
+                    value += (long) best[i] - best[0];
+                }
+
+                if (value > chosenRegret || (value == chosenRegret && best[0] < chosenCompletion)) {
+                    chosen = idx;
+                    chosenRegret = value;
+                    chosenCompletion = best[0];
+                    chosenMachine = bestMachine;
+                    chosenPosition = bestPosition;
+                }
+            }
+
+            solution.add(pending.remove(chosen), chosenMachine, chosenPosition, false);
+        }
+    }
+
+    /**
+     * Choose a job not selected yet at random and mark it as selected.
+     */
+    private static int randomJob(Problem problem, boolean[] selected, Random random) {
+        int job = random.nextInt(problem.n);
+        while (selected[job]) {
+            job = random.nextInt(problem.n);
+        }
+        selected[job] = true;
+        return job;
+    }
+
+}
@@ -0,0 +1,122 @@
+package br.ufmg.ppgee.orcslab.upmsp.algorithm;
+
+import br.ufmg.ppgee.orcslab.upmsp.algorithm.stop.StopCondition;
+import br.ufmg.ppgee.orcslab.upmsp.algorithm.stop.StopConditions;
+import br.ufmg.ppgee.orcslab.upmsp.neighborhood.Neighborhood;
+import br.ufmg.ppgee.orcslab.upmsp.problem.Problem;
+import br.ufmg.ppgee.orcslab.upmsp.problem.Solution;
+import br.ufmg.ppgee.orcslab.upmsp.util.Timer;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This algorithm implements the Late Acceptance Hill Climbing (LAHC) proposed by [1]. A move is
+ * accepted if the new solution is not worse than the current one or than the solution of
+ * {@code L} iterations before, which are kept in a circular array (the history). It has a single
+ * parameter, the length of the history, and no temperature schedule. The moves are generated as
+ * in the {@link SimulatedAnnealing}, and the solutions are evaluated by the sum of the machines'
+ * makespan.
+ *
+ * <p>[1] Burke and Bykov. The late acceptance hill-climbing heuristic. European Journal of
+ * Operational Research 258, 1, pp. 70-78, 2017.
+ * DOI: https://doi.org/10.1016/j.ejor.2016.07.012
+ */
+public class LateAcceptanceHillClimbing extends AbstractAlgorithm {
+
+    /**
+     * Implement the late acceptance hill climbing.
+     * @param problem The problem instance.
+     * @param random A random number generator.
+     * @param parameters Algorithm parameters.
+     * @param callback A callback object.
+     * @return A solution of the problem.
+     */
+    @Override
+    protected Solution doSolve(Problem problem, Random random, Map<String, Object> parameters, Callback callback) {
+
+        // Compute default time limit as in the simulated annealing
+        long defaultTime = problem.n * (problem.m / 2) * 50;
+
+        // Get heuristic parameters
+        int historyLength = (int) parameters.getOrDefault("history-length", 200);
+
+        // Stop conditions (time limit, iterations limit, target makespan, etc.)
+        StopCondition stopCondition = StopConditions.fromParameters(problem, parameters, defaultTime, Long.MAX_VALUE);
+
+        // List of neighborhoods available
+        List<Neighborhood> neighborhoods = createNeighborhoods(parameters,
+                "shift", "switch", "task-move", "swap", "two-shift", "direct-swap");
+
+        // Create the start solution
+        Solution solution = createInitialSolution(problem, random, parameters);
+        Solution bestSolution = new Solution(solution);
+        long totalIterations = 0L;
+        Timer timer = new Timer(true);
+        timer.stop();
+
+        // The history starts with the cost of the start solution
+        int[] history = new int[Math.max(1, historyLength)];
+        Arrays.fill(history, solution.getSumMachinesMakespan());
+
+        // Notify callback and stop conditions about the initial solution
+        callback.onNewIncumbent(new Solution(bestSolution), totalIterations, timer.count(TimeUnit.NANOSECONDS));
+        stopCondition.onNewIncumbent(totalIterations, timer.count(), bestSolution.getMakespan());
+
+        // Start timer
+        timer.start();
+
+        // Main loop: stop when any stop condition is satisfied
+        while (!stopCondition.isSatisfied(totalIterations, timer.count())) {
+
+            // Position of the history compared with the new solution
+            int position = (int) (totalIterations % history.length);
+            ++totalIterations;
+
+            // Use intensification policy?
+            boolean intensification = random.nextBoolean();
+
+            // Use makespan machine?
+            int target = random.nextBoolean() ? solution.getMakespanMachine() : random.nextInt(problem.m);
+
+            // Perform the move
+            Neighborhood neighborhood = neighborhoods.get(random.nextInt(neighborhoods.size()));
+            Solution trialSolution;
+            if (intensification) {
+                trialSolution = neighborhood.getBestNeighbor(problem, solution, target);
+            } else {
+                trialSolution = neighborhood.getAnyNeighbor(problem, solution, random, target);
+            }
+
+            // Accept the move if it is not worse than the current solution or than the solution
+            // of L iterations before
+            int cost = trialSolution.getSumMachinesMakespan();
+            if (cost <= solution.getSumMachinesMakespan() || cost <= history[position]) {
+                solution = trialSolution;
+                solution.update();
+
+                // Update the incumbent solution
+                if (solution.getMakespan() < bestSolution.getMakespan()) {
+                    bestSolution = new Solution(solution);
+
+                    // Callback
+                    timer.stop();
+                    callback.onNewIncumbent(new Solution(bestSolution), totalIterations, timer.count(TimeUnit.NANOSECONDS));
+                    stopCondition.onNewIncumbent(totalIterations, timer.count(), bestSolution.getMakespan());
+                    timer.start();
+                }
+            }
+
+            // Update the history with the cost of the current solution
+            history[position] = solution.getSumMachinesMakespan();
+        }
+
+        // Return the best solution found
+        bestSolution.update();
+        return bestSolution;
+    }
+
+}
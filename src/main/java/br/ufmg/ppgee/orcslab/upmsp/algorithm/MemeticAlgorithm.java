@@ -0,0 +1,456 @@
+package br.ufmg.ppgee.orcslab.upmsp.algorithm;
+
+import br.ufmg.ppgee.orcslab.upmsp.algorithm.stop.StopCondition;
+import br.ufmg.ppgee.orcslab.upmsp.algorithm.stop.StopConditions;
+import br.ufmg.ppgee.orcslab.upmsp.neighborhood.Neighborhood;
+import br.ufmg.ppgee.orcslab.upmsp.problem.Problem;
+import br.ufmg.ppgee.orcslab.upmsp.problem.Solution;
+import br.ufmg.ppgee.orcslab.upmsp.util.Comparator;
+import br.ufmg.ppgee.orcslab.upmsp.util.Timer;
+
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This algorithm implements a steady-state memetic algorithm based on the genetic algorithm of
+ * [1]. At each generation, a few offspring are created from parents chosen by binary tournament:
+ * for each machine, the child receives the jobs of the first parent up to a random cut point, and
+ * the remaining jobs are inserted, in the order of the second parent, at the best position of the
+ * machine they are assigned to in the second parent (so the assignment of every job is inherited
+ * from a parent). The offspring may be mutated by a random move and are improved by a local
+ * search: an optional hill climbing with random moves followed by the descent of the
+ * {@link IteratedLocalSearch}. Each offspring replaces the worst individual of the
+ * population if it is better and not already in the population. The offspring are created and
+ * improved in parallel if more than one thread is available.
+ * <p>
+ * The population is stored in flat arrays of primitive values (see {@link Population}), rather
+ * than as solutions, since most individuals are only read when chosen as parents.
+ *
+ * <p>[1] Vallada and Ruiz. Genetic algorithms for the unrelated parallel machine scheduling
+ * problem with sequence dependent setup times. European Journal of Operational Research 211, 3,
+ * pp. 612-622, 2011.
+ * DOI: https://doi.org/10.1016/j.ejor.2011.01.011
+ */
+public class MemeticAlgorithm extends AbstractAlgorithm {
+
+    /**
+     * Implement the memetic algorithm.
+     * @param problem The problem instance.
+     * @param random A random number generator.
+     * @param parameters Algorithm parameters.
+     * @param callback A callback object.
+     * @return A solution of the problem.
+     */
+    @Override
+    protected Solution doSolve(Problem problem, Random random, Map<String, Object> parameters, Callback callback) {
+
+        // Compute default time limit as in the simulated annealing
+        long defaultTime = problem.n * (problem.m / 2) * 50;
+
+        // Get heuristic parameters
+        int populationSize = Math.max(2, (int) parameters.getOrDefault("population-size", 20));
+        int offspring = Math.max(1, (int) parameters.getOrDefault("offspring", 4));
+        double mutationRate = (double) parameters.getOrDefault("mutation-rate", 0.5);
+        double alpha = (double) parameters.getOrDefault("grasp-alpha", 0.3);
+        long moves = (long) parameters.getOrDefault("local-search-moves", 0L);
+        boolean localSearch = (boolean) parameters.getOrDefault("local-search", true);
+        int threads = (int) parameters.getOrDefault("threads", 1);
+
+        // Stop conditions (time limit, iterations limit, target makespan, etc.), checked by all
+        // threads of the local search (some of them keep a state, so the calls are synchronized)
+        StopCondition conditions = StopConditions.fromParameters(problem, parameters, defaultTime, Long.MAX_VALUE);
+        StopCondition stopCondition = (threads > 1 ? new SynchronizedStopCondition(conditions) : conditions);
+
+        // List of neighborhoods in the order they are explored by the descent (each thread has its
+        // own list, since the neighborhoods that cache their best moves are not thread-safe)
+        ThreadLocal<List<Neighborhood>> threadNeighborhoods = ThreadLocal.withInitial(() -> createNeighborhoods(parameters,
+                "shift", "switch", "task-move", "direct-swap", "swap", "two-shift"));
+
+        Comparator comparator = new Comparator();
+        Timer timer = new Timer(true);
+        ExecutorService executor = (threads > 1 ? Executors.newFixedThreadPool(threads) : null);
+
+        try {
+
+            // Initial population: the start solution and solutions built by the GRASP
+            // constructive heuristic, all of them improved by the local search
+            List<Callable<Solution>> tasks = new ArrayList<>(populationSize);
+            Solution initialSolution = createInitialSolution(problem, random, parameters);
+            for (int idx = 0; idx < populationSize; ++idx) {
+                Random taskRandom = new Random(random.nextLong());
+                boolean first = (idx == 0);
+                tasks.add(() -> {
+                    List<Neighborhood> neighborhoods = threadNeighborhoods.get();
+                    Solution solution = (first ? new Solution(initialSolution) : GraspHeuristic.construct(problem, taskRandom, alpha));
+                    return improve(problem, solution, neighborhoods, moves, localSearch, taskRandom, stopCondition, 0L, timer);
+                });
+            }
+            List<Solution> individuals = runAll(tasks, executor);
+
+            Population population = new Population(problem, populationSize);
+            Solution bestSolution = null;
+            for (Solution individual : individuals) {
+                population.insert(individual);
+                if (bestSolution == null || comparator.compare(individual, bestSolution) < 0) {
+                    bestSolution = individual;
+                }
+            }
+            if (bestSolution == null) {
+                bestSolution = initialSolution;
+            }
+            bestSolution = new Solution(bestSolution);
+
+            // Notify callback and stop conditions about the initial solution
+            timer.stop();
+            callback.onNewIncumbent(new Solution(bestSolution), 0L, timer.count(TimeUnit.NANOSECONDS));
+            stopCondition.onNewIncumbent(0L, timer.count(), bestSolution.getMakespan());
+            timer.start();
+
+            // Main loop: stop when any stop condition is satisfied
+            long generation = 0L;
+            while (population.size() > 1 && !Thread.currentThread().isInterrupted()
+                    && !stopCondition.isSatisfied(generation, timer.count())) {
+                ++generation;
+
+                // Create the offspring, each one with its own random number generator (so the
+                // results do not depend on the number of threads)
+                tasks.clear();
+                for (int idx = 0; idx < offspring; ++idx) {
+                    Solution first = population.get(population.tournament(random));
+                    Solution second = population.get(population.tournament(random));
+                    Random taskRandom = new Random(random.nextLong());
+
+                    // The stop condition is checked with the generations completed, so the last
+                    // generation also gets its local search
+                    long iteration = generation - 1;
+                    tasks.add(() -> {
+                        List<Neighborhood> neighborhoods = threadNeighborhoods.get();
+                        Solution child = crossover(problem, first, second, taskRandom);
+                        if (taskRandom.nextDouble() < mutationRate) {
+                            Neighborhood neighborhood = neighborhoods.get(taskRandom.nextInt(neighborhoods.size()));
+                            int target = taskRandom.nextBoolean() ? child.getMakespanMachine() : taskRandom.nextInt(problem.m);
+                            child = neighborhood.getAnyNeighbor(problem, child, taskRandom, target);
+                        }
+                        return improve(problem, child, neighborhoods, moves, localSearch, taskRandom, stopCondition,
+                                iteration, timer);
+                    });
+                }
+
+                // Replacement: each child replaces the worst individual if it is better
+                for (Solution child : runAll(tasks, executor)) {
+                    population.insert(child);
+
+                    // Update the incumbent solution
+                    if (comparator.compare(child, bestSolution) < 0) {
+                        bestSolution = new Solution(child);
+
+                        // Callback
+                        timer.stop();
+                        callback.onNewIncumbent(new Solution(bestSolution), generation, timer.count(TimeUnit.NANOSECONDS));
+                        stopCondition.onNewIncumbent(generation, timer.count(), bestSolution.getMakespan());
+                        timer.start();
+                    }
+                }
+            }
+
+            // Return the best solution found
+            bestSolution.update();
+            return bestSolution;
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+
+    // --------------------------------------------------------------------------------------------
+    // Auxiliary methods
+    // --------------------------------------------------------------------------------------------
+
+    /**
+     * Crossover: for each machine, the child receives the jobs of the first parent up to a random
+     * cut point. The remaining jobs are inserted, in the order of the second parent, at the best
+     * position of the machine they are assigned to in the second parent.
+     * @param problem The problem instance.
+     * @param first The first parent.
+     * @param second The second parent.
+     * @param random A random number generator.
+     * @return The child.
+     */
+    public static Solution crossover(Problem problem, Solution first, Solution second, Random random) {
+        Solution child = new Solution(problem);
+        boolean[] inserted = new boolean[problem.n];
+
+        // Jobs of the first parent up to the cut point of each machine
+        for (int k = 0; k < problem.m; ++k) {
+            int cut = random.nextInt(first.count(k) + 1);
+            for (int position = 0; position < cut; ++position) {
+                int job = first.get(k, position);
+                child.add(job, k, false);
+                inserted[job] = true;
+            }
+        }
+
+        // Remaining jobs at the best position of their machine in the second parent
+        for (int k = 0; k < problem.m; ++k) {
+            for (int idx = 0; idx < second.count(k); ++idx) {
+                int job = second.get(k, idx);
+                if (!inserted[job]) {
+                    int bestPosition = 0;
+                    int bestCost = Integer.MAX_VALUE;
+                    for (int position = 0; position <= child.count(k); ++position) {
+                        int cost = child.getCostAdd(job, k, position);
+                        if (cost < bestCost) {
+                            bestPosition = position;
+                            bestCost = cost;
+                        }
+                    }
+                    child.add(job, k, bestPosition, false);
+                }
+            }
+        }
+
+        child.update();
+        return child;
+    }
+
+    /**
+     * Improve a solution: a hill climbing with random moves (see
+     * {@link #climb(Problem, Solution, List, long, Random, StopCondition, long, Timer)}) followed
+     * by the descent of the {@link IteratedLocalSearch}, if enabled. The hill climbing is cheaper
+     * than the descent on solutions far from a local optimum, as the offspring of large instances.
+     */
+    private static Solution improve(Problem problem, Solution solution, List<Neighborhood> neighborhoods, long moves,
+                                    boolean localSearch, Random random, StopCondition stopCondition, long iteration,
+                                    Timer timer) {
+        solution = climb(problem, solution, neighborhoods, moves, random, stopCondition, iteration, timer);
+        if (localSearch) {
+            solution = IteratedLocalSearch.descent(problem, solution, neighborhoods, stopCondition, iteration, timer);
+            solution.update();
+        }
+        return solution;
+    }
+
+    /**
+     * Improve a solution by a hill climbing: a number of moves are generated as in the
+     * {@link SimulatedAnnealing} (a random neighbor or the best neighbor of a random neighborhood)
+     * and accepted if they do not increase the sum of the machines' makespan.
+     * @param problem The problem instance.
+     * @param solution The solution.
+     * @param neighborhoods The neighborhoods.
+     * @param moves Number of moves.
+     * @param random A random number generator.
+     * @param stopCondition Stop condition of the algorithm.
+     * @param iteration Number of iterations completed by the algorithm (the iteration in which
+     *                  the stop condition was last checked by its main loop).
+     * @param timer Timer of the algorithm.
+     * @return The best solution found.
+     */
+    public static Solution climb(Problem problem, Solution solution, List<Neighborhood> neighborhoods, long moves,
+                                 Random random, StopCondition stopCondition, long iteration, Timer timer) {
+        Comparator comparator = new Comparator();
+        solution.update();
+        Solution bestSolution = solution;
+        for (long move = 0L; move < moves && !stopCondition.isSatisfied(iteration, timer.count()); ++move) {
+            Neighborhood neighborhood = neighborhoods.get(random.nextInt(neighborhoods.size()));
+            int target = random.nextBoolean() ? solution.getMakespanMachine() : random.nextInt(problem.m);
+            Solution neighbor = (random.nextBoolean() ? neighborhood.getBestNeighbor(problem, solution, target)
+                    : neighborhood.getAnyNeighbor(problem, solution, random, target));
+
+            if (neighbor.getSumMachinesMakespan() <= solution.getSumMachinesMakespan()) {
+                solution = neighbor;
+                solution.update();
+                if (comparator.compare(solution, bestSolution) < 0) {
+                    bestSolution = solution;
+                }
+            }
+        }
+        return bestSolution;
+    }
+
+    /**
+     * Run the tasks, in parallel if an executor is given, and return their solutions. If the
+     * current thread is interrupted, the solutions of the tasks completed are returned.
+     * @param tasks The tasks.
+     * @param executor Executor used to run the tasks (or null to run them in the current thread).
+     * @return The solutions.
+     */
+    private static List<Solution> runAll(List<Callable<Solution>> tasks, ExecutorService executor) {
+        List<Solution> solutions = new ArrayList<>(tasks.size());
+        try {
+            if (executor == null) {
+                for (Callable<Solution> task : tasks) {
+                    solutions.add(task.call());
+                }
+            } else {
+                for (Future<Solution> future : executor.invokeAll(tasks)) {
+                    solutions.add(future.get());
+                }
+            }
+        } catch (InterruptedException e) {
+
+            // Keep the interrupted status and use the solutions found so far
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause().getMessage(), e.getCause());
+        } catch (Exception e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+        return solutions;
+    }
+
+
+    // --------------------------------------------------------------------------------------------
+    // Auxiliary classes
+    // --------------------------------------------------------------------------------------------
+
+    /**
+     * Stop condition shared by the threads that improve the individuals: the calls to the stop
+     * condition (e.g., {@link br.ufmg.ppgee.orcslab.upmsp.algorithm.stop.ImprovementRate}, which
+     * keeps a history of the incumbent solutions) are serialized.
+     */
+    private static class SynchronizedStopCondition implements StopCondition {
+
+        private final StopCondition stopCondition;
+
+        SynchronizedStopCondition(StopCondition stopCondition) {
+            this.stopCondition = stopCondition;
+        }
+
+        @Override
+        public synchronized void onNewIncumbent(long iteration, long time, int makespan) {
+            stopCondition.onNewIncumbent(iteration, time, makespan);
+        }
+
+        @Override
+        public synchronized boolean isSatisfied(long iteration, long time) {
+            return stopCondition.isSatisfied(iteration, time);
+        }
+    }
+
+    /**
+     * Population of the memetic algorithm. The individuals are stored in flat arrays: the jobs of
+     * each individual (machine after machine), the number of jobs of each machine, their makespan,
+     * sum of the machines' makespan and hash (used to reject duplicated individuals).
+     */
+    static class Population {
+
+        final Problem problem;
+        final int capacity;
+        final int[] jobs;
+        final int[] counts;
+        final int[] makespan;
+        final int[] sumMakespan;
+        final long[] hashes;
+        int size;
+
+        Population(Problem problem, int capacity) {
+            this.problem = problem;
+            this.capacity = capacity;
+            this.jobs = new int[capacity * problem.n];
+            this.counts = new int[capacity * problem.m];
+            this.makespan = new int[capacity];
+            this.sumMakespan = new int[capacity];
+            this.hashes = new long[capacity];
+            this.size = 0;
+        }
+
+        int size() {
+            return size;
+        }
+
+        /**
+         * Insert a solution if it is not in the population. If the population is full, it
+         * replaces the worst individual if it is better.
+         * @return True if the solution is inserted.
+         */
+        boolean insert(Solution solution) {
+            solution.update();
+            long hash = solution.getHash();
+            for (int idx = 0; idx < size; ++idx) {
+                if (hashes[idx] == hash) {
+                    return false;
+                }
+            }
+
+            int idx = size;
+            if (size == capacity) {
+                idx = worst();
+                if (compare(solution.getMakespan(), solution.getSumMachinesMakespan(), idx) >= 0) {
+                    return false;
+                }
+            } else {
+                ++size;
+            }
+
+            int offset = idx * problem.n;
+            for (int k = 0; k < problem.m; ++k) {
+                int count = solution.count(k);
+                counts[idx * problem.m + k] = count;
+                for (int position = 0; position < count; ++position) {
+                    jobs[offset++] = solution.get(k, position);
+                }
+            }
+            makespan[idx] = solution.getMakespan();
+            sumMakespan[idx] = solution.getSumMachinesMakespan();
+            hashes[idx] = hash;
+            return true;
+        }
+
+        /**
+         * Return a copy of an individual as a solution.
+         */
+        Solution get(int idx) {
+            Solution solution = new Solution(problem);
+            int offset = idx * problem.n;
+            for (int k = 0; k < problem.m; ++k) {
+                int count = counts[idx * problem.m + k];
+                for (int position = 0; position < count; ++position) {
+                    solution.add(jobs[offset++], k, false);
+                }
+            }
+            solution.update();
+            return solution;
+        }
+
+        /**
+         * Return the better of two individuals chosen at random (binary tournament).
+         */
+        int tournament(Random random) {
+            int a = random.nextInt(size);
+            int b = random.nextInt(size);
+            return (compare(makespan[a], sumMakespan[a], b) < 0 ? a : b);
+        }
+
+        /**
+         * Return the index of the worst individual.
+         */
+        int worst() {
+            int worst = 0;
+            for (int idx = 1; idx < size; ++idx) {
+                if (compare(makespan[idx], sumMakespan[idx], worst) > 0) {
+                    worst = idx;
+                }
+            }
+            return worst;
+        }
+
+        /**
+         * Compare a makespan and a sum of the machines' makespan with the ones of an individual,
+         * as the {@link Comparator}.
+         */
+        int compare(int makespan, int sumMakespan, int idx) {
+            if (makespan != this.makespan[idx]) {
+                return Integer.compare(makespan, this.makespan[idx]);
+            }
+            return Integer.compare(sumMakespan, this.sumMakespan[idx]);
+        }
+    }
+
+}
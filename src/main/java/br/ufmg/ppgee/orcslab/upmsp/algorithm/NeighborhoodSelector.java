@@ -0,0 +1,177 @@
+package br.ufmg.ppgee.orcslab.upmsp.algorithm;
+
+import br.ufmg.ppgee.orcslab.upmsp.neighborhood.Neighborhood;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Adaptive selection of the neighborhoods used by a local search. Each option (arm) is a
+ * neighborhood used either to generate the best neighbor of the solution or a random one, since
+ * the cost of these uses differs by orders of magnitude. The arms are chosen by a roulette wheel
+ * in which the weight of an arm is its rate of improvement per nanosecond: the reduction of the
+ * sum of the machines' makespan by its neighbors divided by the time spent generating them, both
+ * exponentially discounted on each use, so the weights follow the changes along the search. Every
+ * arm keeps a minimum probability, so the rates of all arms are still estimated.
+ * <p>
+ * The selector also keeps the statistics of the use of each arm (see {@link NeighborhoodUsage}),
+ * which are collected even if the arms are not chosen by it.
+ */
+public class NeighborhoodSelector {
+
+    private final List<Neighborhood> neighborhoods;
+    private final double decay;
+    private final double minProbability;
+
+    // Discounted improvement and time of each arm
+    private final double[] reward;
+    private final double[] cost;
+
+    // Statistics of each arm
+    private final long[] calls;
+    private final long[] accepted;
+    private final long[] improving;
+    private final long[] improvement;
+    private final long[] time;
+
+    // Buffers for the rates and probabilities of the arms
+    private final double[] rates;
+    private final double[] probabilities;
+
+    /**
+     * Constructor.
+     * @param neighborhoods The neighborhoods.
+     * @param decay Discount factor (in (0, 1]) of the past improvement and time of an arm at each
+     *              use.
+     * @param minProbability Minimum probability of choosing each arm (less than one divided by
+     *                       twice the number of neighborhoods).
+     */
+    public NeighborhoodSelector(List<Neighborhood> neighborhoods, double decay, double minProbability) {
+        int arms = 2 * neighborhoods.size();
+        this.neighborhoods = neighborhoods;
+        this.decay = decay;
+        this.minProbability = Math.min(minProbability, 1.0 / arms);
+        this.reward = new double[arms];
+        this.cost = new double[arms];
+        this.calls = new long[arms];
+        this.accepted = new long[arms];
+        this.improving = new long[arms];
+        this.improvement = new long[arms];
+        this.time = new long[arms];
+        this.rates = new double[arms];
+        this.probabilities = new double[arms];
+    }
+
+    /**
+     * Return the arm that corresponds to the use of a neighborhood.
+     * @param neighborhood Index of the neighborhood.
+     * @param intensification True if the best neighbor is generated.
+     * @return The arm.
+     */
+    public int arm(int neighborhood, boolean intensification) {
+        return 2 * neighborhood + (intensification ? 1 : 0);
+    }
+
+    /**
+     * Return the neighborhood of an arm.
+     * @param arm The arm.
+     * @return The neighborhood.
+     */
+    public Neighborhood getNeighborhood(int arm) {
+        return neighborhoods.get(arm / 2);
+    }
+
+    /**
+     * Return true if the arm generates the best neighbor of the solution.
+     * @param arm The arm.
+     * @return True if the arm generates the best neighbor, or false if it generates a random one.
+     */
+    public boolean isIntensification(int arm) {
+        return arm % 2 == 1;
+    }
+
+    /**
+     * Choose an arm by the roulette wheel. Arms never used are chosen first.
+     * @param random A random number generator.
+     * @return The arm.
+     */
+    public int select(Random random) {
+        for (int arm = 0; arm < calls.length; ++arm) {
+            if (calls[arm] == 0L) {
+                return arm;
+            }
+        }
+
+        computeProbabilities();
+        double value = random.nextDouble();
+        for (int arm = 0; arm < probabilities.length - 1; ++arm) {
+            value -= probabilities[arm];
+            if (value < 0.0) {
+                return arm;
+            }
+        }
+        return probabilities.length - 1;
+    }
+
+    /**
+     * Update the statistics of an arm after its use.
+     * @param arm The arm.
+     * @param elapsed Time (in nanoseconds) spent generating the neighbor.
+     * @param delta Change of the sum of the machines' makespan of the neighbor with regard to the
+     *              current solution.
+     * @param accept True if the neighbor was accepted.
+     */
+    public void update(int arm, long elapsed, int delta, boolean accept) {
+        ++calls[arm];
+        time[arm] += elapsed;
+        if (accept) {
+            ++accepted[arm];
+        }
+        if (delta < 0) {
+            ++improving[arm];
+            improvement[arm] -= delta;
+        }
+
+        reward[arm] = decay * reward[arm] + Math.max(0, -delta);
+        cost[arm] = decay * cost[arm] + Math.max(1L, elapsed);
+    }
+
+    /**
+     * Return the statistics of the use of each arm.
+     * @return The statistics.
+     */
+    public List<NeighborhoodUsage> getUsage() {
+        computeProbabilities();
+        List<NeighborhoodUsage> usage = new ArrayList<>(calls.length);
+        for (int arm = 0; arm < calls.length; ++arm) {
+            usage.add(new NeighborhoodUsage(getNeighborhood(arm).getName(), isIntensification(arm), calls[arm],
+                    accepted[arm], improving[arm], improvement[arm], time[arm], probabilities[arm]));
+        }
+        return usage;
+    }
+
+
+    // --------------------------------------------------------------------------------------------
+    // Auxiliary methods
+    // --------------------------------------------------------------------------------------------
+
+    /**
+     * Compute the probability of choosing each arm: the minimum probability plus a share of the
+     * remaining probability proportional to the rate of improvement per nanosecond of the arm.
+     */
+    private void computeProbabilities() {
+        int arms = calls.length;
+        double total = 0.0;
+        for (int arm = 0; arm < arms; ++arm) {
+            rates[arm] = (cost[arm] > 0.0 ? reward[arm] / cost[arm] : 0.0);
+            total += rates[arm];
+        }
+
+        for (int arm = 0; arm < arms; ++arm) {
+            double share = (total > 0.0 ? rates[arm] / total : 1.0 / arms);
+            probabilities[arm] = minProbability + (1.0 - arms * minProbability) * share;
+        }
+    }
+
+}
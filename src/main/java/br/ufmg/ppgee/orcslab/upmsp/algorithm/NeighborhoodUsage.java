@@ -0,0 +1,73 @@
+package br.ufmg.ppgee.orcslab.upmsp.algorithm;
+
+/**
+ * Auxiliary class to store the statistics of the use of a neighborhood by an algorithm, either to
+ * generate the best neighbor of a solution (intensification) or a random one. They are reported
+ * to the callback (see {@link Callback#onNeighborhoodUsage(java.util.List, long, long)}).
+ */
+public class NeighborhoodUsage {
+
+    /**
+     * Name of the neighborhood.
+     */
+    public final String neighborhood;
+
+    /**
+     * True if the best neighbor is generated, or false if a random one is generated.
+     */
+    public final boolean intensification;
+
+    /**
+     * Number of neighbors generated.
+     */
+    public final long calls;
+
+    /**
+     * Number of neighbors accepted by the algorithm.
+     */
+    public final long accepted;
+
+    /**
+     * Number of neighbors better than the current solution.
+     */
+    public final long improving;
+
+    /**
+     * Total reduction of the sum of the machines' makespan by the improving neighbors.
+     */
+    public final long improvement;
+
+    /**
+     * Total time (in nanoseconds) spent generating neighbors.
+     */
+    public final long time;
+
+    /**
+     * Current probability of choosing this neighborhood.
+     */
+    public final double probability;
+
+    /**
+     * Constructor.
+     * @param neighborhood Name of the neighborhood.
+     * @param intensification True if the best neighbor is generated.
+     * @param calls Number of neighbors generated.
+     * @param accepted Number of neighbors accepted.
+     * @param improving Number of neighbors better than the current solution.
+     * @param improvement Total reduction of the sum of the machines' makespan.
+     * @param time Total time (in nanoseconds) spent generating neighbors.
+     * @param probability Current probability of choosing this neighborhood.
+     */
+    public NeighborhoodUsage(String neighborhood, boolean intensification, long calls, long accepted, long improving,
+                             long improvement, long time, double probability) {
+        this.neighborhood = neighborhood;
+        this.intensification = intensification;
+        this.calls = calls;
+        this.accepted = accepted;
+        this.improving = improving;
+        this.improvement = improvement;
+        this.time = time;
+        this.probability = probability;
+    }
+
+}
@@ -0,0 +1,125 @@
+package br.ufmg.ppgee.orcslab.upmsp.algorithm;
+
+import br.ufmg.ppgee.orcslab.upmsp.problem.Problem;
+import br.ufmg.ppgee.orcslab.upmsp.problem.Solution;
+import br.ufmg.ppgee.orcslab.upmsp.util.Comparator;
+
+/**
+ * Path relinking between two solutions: a path of solutions is walked from the initial solution
+ * to the guiding one, and the best solution of the path is returned. First, the jobs are moved to
+ * the machines they are assigned to in the guiding solution (as in the {@link
+ * br.ufmg.ppgee.orcslab.upmsp.neighborhood.TaskMove} neighborhood): at each step, the move with
+ * the lowest resulting completion time of the machines involved is applied, and the job is
+ * inserted at its best position of the new machine. Then, the jobs of each machine are put in
+ * the order of the guiding solution (as in the {@link
+ * br.ufmg.ppgee.orcslab.upmsp.neighborhood.Shift} neighborhood). The moves are evaluated by the
+ * changes of the makespan of the machines involved (see {@link Solution#getCostRemove(int, int)}
+ * and {@link Solution#getCostAdd(int, int, int)}), in constant time.
+ */
+public class PathRelinking {
+
+    /**
+     * Walk the path from the initial solution to the guiding solution.
+     * @param problem The problem instance.
+     * @param initial The initial solution.
+     * @param guide The guiding solution.
+     * @return The best solution of the path (except the initial and guiding solutions), or null
+     * if the path has no intermediate solution.
+     */
+    public static Solution relink(Problem problem, Solution initial, Solution guide) {
+        Comparator comparator = new Comparator();
+        Solution current = new Solution(initial);
+        Solution best = null;
+        long guideHash = guide.getHash();
+
+        // Jobs assigned to different machines
+        int[] pending = new int[problem.n];
+        int count = 0;
+        for (int job = 0; job < problem.n; ++job) {
+            if (current.getAssignment(job) != guide.getAssignment(job)) {
+                pending[count++] = job;
+            }
+        }
+
+        // Assignment: move the jobs to the machines of the guiding solution
+        while (count > 0) {
+            int chosen = -1;
+            int chosenPosition = -1;
+            int chosenInsertion = -1;
+            int chosenCompletion = Integer.MAX_VALUE;
+            int chosenCost = Integer.MAX_VALUE;
+
+            for (int idx = 0; idx < count; ++idx) {
+                int job = pending[idx];
+                int k1 = current.getAssignment(job);
+                int k2 = guide.getAssignment(job);
+                int position = position(current, k1, job);
+                int costRemove = current.getCostRemove(k1, position);
+
+                // Best position of the job on the new machine
+                for (int insertion = 0; insertion <= current.count(k2); ++insertion) {
+                    int costAdd = current.getCostAdd(job, k2, insertion);
+                    int completion = Math.max(current.getMakespan(k1) + costRemove, current.getMakespan(k2) + costAdd);
+                    int cost = costRemove + costAdd;
+                    if (completion < chosenCompletion || (completion == chosenCompletion && cost < chosenCost)) {
+                        chosen = idx;
+                        chosenPosition = position;
+                        chosenInsertion = insertion;
+                        chosenCompletion = completion;
+                        chosenCost = cost;
+                    }
+                }
+            }
+
+            // Apply the move
+            int job = pending[chosen];
+            current.remove(current.getAssignment(job), chosenPosition, false);
+            current.add(job, guide.getAssignment(job), chosenInsertion, false);
+            pending[chosen] = pending[--count];
+            best = record(current, best, guideHash, comparator);
+        }
+
+        // Sequencing: put the jobs of each machine in the order of the guiding solution
+        for (int k = 0; k < problem.m; ++k) {
+            for (int idx = 0; idx < guide.count(k); ++idx) {
+                int job = guide.get(k, idx);
+                if (current.get(k, idx) != job) {
+                    current.remove(k, position(current, k, job), false);
+                    current.add(job, k, idx, false);
+                    best = record(current, best, guideHash, comparator);
+                }
+            }
+        }
+
+        return best;
+    }
+
+
+    // --------------------------------------------------------------------------------------------
+    // Auxiliary methods
+    // --------------------------------------------------------------------------------------------
+
+    /**
+     * Return the position of a job on a machine.
+     */
+    private static int position(Solution solution, int k, int job) {
+        int position = 0;
+        while (solution.get(k, position) != job) {
+            ++position;
+        }
+        return position;
+    }
+
+    /**
+     * Keep a copy of the current solution of the path if it is the best one so far (the guiding
+     * solution is not considered).
+     */
+    private static Solution record(Solution current, Solution best, long guideHash, Comparator comparator) {
+        current.update();
+        if ((best == null || comparator.compare(current, best) < 0) && current.getHash() != guideHash) {
+            return new Solution(current);
+        }
+        return best;
+    }
+
+}
@@ -0,0 +1,201 @@
+package br.ufmg.ppgee.orcslab.upmsp.algorithm;
+
+import br.ufmg.ppgee.orcslab.upmsp.problem.LowerBound;
+import br.ufmg.ppgee.orcslab.upmsp.problem.Problem;
+import br.ufmg.ppgee.orcslab.upmsp.problem.Solution;
+import br.ufmg.ppgee.orcslab.upmsp.util.Comparator;
+
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Portfolio of algorithms that run concurrently on the same instance, each one in its own thread
+ * (see {@link AsyncSolver}) and with its own random number generator. Since it is not known in
+ * advance which algorithm (or configuration) suits an instance, the idle cores are spent running
+ * several of them. The members share the best solution found: every improvement of the portfolio
+ * is reported to the callback, and as soon as a member reaches the target makespan (or the lower
+ * bound of the instance, which proves optimality), the other members are cancelled. The best
+ * solution among all members is returned.
+ * <p>
+ * The members are given by the parameters {@code members} (a list of algorithms) and
+ * {@code member-parameters} (a list with the parameters of each member). By default, the
+ * simulated annealing, the late acceptance hill climbing, the tabu search and the iterated local
+ * search are run with the parameters of the portfolio. The members that use an elite pool for
+ * path relinking share the same pool (see {@link ElitePool}).
+ */
+public class Portfolio extends AbstractAlgorithm {
+
+    /**
+     * Implement the portfolio.
+     * @param problem The problem instance.
+     * @param random A random number generator.
+     * @param parameters Algorithm parameters.
+     * @param callback A callback object.
+     * @return A solution of the problem.
+     */
+    @Override
+    protected Solution doSolve(Problem problem, Random random, Map<String, Object> parameters, Callback callback) {
+
+        // Members of the portfolio
+        List<Algorithm> members = (List<Algorithm>) parameters.get("members");
+        List<Map<String, Object>> memberParameters = (List<Map<String, Object>>) parameters.get("member-parameters");
+        if (members == null) {
+            members = Arrays.asList(new SimulatedAnnealing(), new LateAcceptanceHillClimbing(), new TabuSearch(),
+                    new IteratedLocalSearch());
+            memberParameters = new ArrayList<>();
+            for (int idx = 0; idx < members.size(); ++idx) {
+                Map<String, Object> copy = new HashMap<>(parameters);
+                copy.remove("checkpoint-file");
+                copy.remove("resume");
+                memberParameters.add(copy);
+            }
+        }
+
+        // The members that use an elite pool (see SimulatedAnnealing) share the same one
+        ElitePool elitePool = null;
+        List<Map<String, Object>> sharedParameters = new ArrayList<>(memberParameters.size());
+        for (Map<String, Object> params : memberParameters) {
+            int eliteSize = (int) params.getOrDefault("elite-size", 0);
+            if (eliteSize > 0 && !params.containsKey("elite-pool")) {
+                if (elitePool == null) {
+                    int eliteDistance = (int) params.getOrDefault("elite-distance", Math.max(1, problem.n / 50));
+                    elitePool = new ElitePool(problem, eliteSize, eliteDistance);
+                }
+                params = new HashMap<>(params);
+                params.put("elite-pool", elitePool);
+            }
+            sharedParameters.add(params);
+        }
+
+        // Target makespan (or the lower bound), as in the stop conditions
+        int target = LowerBound.target(problem, (double) parameters.getOrDefault("gap", 0.0));
+        if (parameters.containsKey("target")) {
+            target = Math.max(target, (int) parameters.get("target"));
+        }
+
+        // Run the members concurrently
+        SharedIncumbent shared = new SharedIncumbent(callback, target);
+        AsyncSolver solver = new AsyncSolver(members.size());
+        try {
+            for (int idx = 0; idx < members.size(); ++idx) {
+                Random memberRandom = new Random(random.nextLong());
+                shared.add(solver.submit(members.get(idx), problem, memberRandom, sharedParameters.get(idx), shared));
+            }
+            shared.checkTarget();
+
+            // Wait the members to finish (if interrupted, they are cancelled and return the best
+            // solutions found so far)
+            boolean interrupted = false;
+            for (SolverHandle handle : shared.handles) {
+                while (!handle.getFuture().isDone()) {
+                    try {
+                        handle.getFuture().get();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                        shared.cancelAll();
+                    } catch (ExecutionException | CancellationException e) {
+                        shared.cancelAll();
+                    }
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+
+            // Keep the best solution among the members
+            Comparator comparator = new Comparator();
+            Solution bestSolution = shared.getBest();
+            for (SolverHandle handle : shared.handles) {
+                Solution solution;
+                try {
+                    solution = handle.getFuture().join();
+                } catch (CancellationException e) {
+                    continue;
+                } catch (CompletionException e) {
+                    throw new RuntimeException(e.getCause().getMessage(), e.getCause());
+                }
+
+                solution.update();
+                if (bestSolution == null || comparator.compare(solution, bestSolution) < 0) {
+                    bestSolution = solution;
+                }
+            }
+
+            // The members were cancelled before any solution was found (e.g., the portfolio was
+            // interrupted right after they started), so the initial solution is returned
+            if (bestSolution == null) {
+                bestSolution = createInitialSolution(problem, random, parameters);
+            }
+
+            // Return the best solution found
+            bestSolution.update();
+            return bestSolution;
+        } finally {
+            solver.shutdownNow();
+        }
+    }
+
+
+    // --------------------------------------------------------------------------------------------
+    // Auxiliary classes
+    // --------------------------------------------------------------------------------------------
+
+    /**
+     * Best solution found by the members, shared among them. It forwards the improvements to the
+     * callback of the portfolio and cancels the members when the target is reached.
+     */
+    private static class SharedIncumbent implements Callback {
+
+        final Callback callback;
+        final int target;
+        final List<SolverHandle> handles;
+        final Comparator comparator;
+        Solution best;
+        long improvements;
+
+        SharedIncumbent(Callback callback, int target) {
+            this.callback = callback;
+            this.target = target;
+            this.handles = new ArrayList<>();
+            this.comparator = new Comparator();
+            this.best = null;
+            this.improvements = 0L;
+        }
+
+        synchronized void add(SolverHandle handle) {
+            handles.add(handle);
+        }
+
+        synchronized Solution getBest() {
+            return best;
+        }
+
+        @Override
+        public synchronized void onNewIncumbent(Solution incumbent, long iteration, long time) {
+            incumbent.update();
+            if (best == null || comparator.compare(incumbent, best) < 0) {
+                best = new Solution(incumbent);
+                callback.onNewIncumbent(incumbent, ++improvements, time);
+                checkTarget();
+            }
+        }
+
+        /**
+         * Cancel all members if the target makespan is reached.
+         */
+        synchronized void checkTarget() {
+            if (best != null && best.getMakespan() <= target) {
+                cancelAll();
+            }
+        }
+
+        synchronized void cancelAll() {
+            for (SolverHandle handle : handles) {
+                handle.cancel();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,343 @@
+package br.ufmg.ppgee.orcslab.upmsp.algorithm;
+
+import br.ufmg.ppgee.orcslab.upmsp.algorithm.stop.Interruption;
+import br.ufmg.ppgee.orcslab.upmsp.algorithm.stop.StopCondition;
+import br.ufmg.ppgee.orcslab.upmsp.algorithm.stop.StopConditions;
+import br.ufmg.ppgee.orcslab.upmsp.algorithm.stop.TimeLimit;
+import br.ufmg.ppgee.orcslab.upmsp.neighborhood.*;
+import br.ufmg.ppgee.orcslab.upmsp.problem.Problem;
+import br.ufmg.ppgee.orcslab.upmsp.problem.Solution;
+import br.ufmg.ppgee.orcslab.upmsp.util.Insertion;
+import br.ufmg.ppgee.orcslab.upmsp.util.Timer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Online rescheduling: keeps a schedule and repairs it when jobs arrive, jobs are cancelled or
+ * machines become unavailable, instead of solving the problem again from scratch. Each change is
+ * repaired by best insertion (see {@link Insertion}) followed by a variable neighborhood descent
+ * (see {@link IteratedLocalSearch#descent}) limited in time.
+ * <p>
+ * The jobs and machines keep their indexes. A cancelled job remains in the problem, but it is not
+ * assigned to any machine (so the solution is not complete in the sense of
+ * {@link Solution#isFeasible(StringBuilder)}). An offline machine remains in the problem as well,
+ * but its processing times are replaced by a value larger than any makespan, so no job is
+ * assigned to it.
+ * <p>
+ * The processing and setup times are stored in arrays with spare capacity, which are shared by
+ * the successive versions of the problem, so adding a job does not copy all setup times. This
+ * class is not thread safe.
+ */
+public class Rescheduler {
+
+    private final int m;
+    private int n;
+    private int capacity;
+    private int[][] p;
+    private int[][][] s;
+    private int[] unavailable;
+    private boolean[] active;
+    private final boolean[] online;
+    private final List<Neighborhood> neighborhoods;
+    private final long timeLimit;
+    private Problem problem;
+    private Solution solution;
+
+    /**
+     * Constructor.
+     * @param problem The problem instance.
+     * @param solution The current schedule (it must be feasible).
+     * @param timeLimit Time limit of the local search performed after each change (in
+     *                  milliseconds).
+     */
+    public Rescheduler(Problem problem, Solution solution, long timeLimit) {
+        this.m = problem.m;
+        this.n = problem.n;
+        this.timeLimit = timeLimit;
+
+        // Copy the problem data to the arrays with spare capacity
+        this.capacity = problem.n + Math.max(16, problem.n / 4);
+        this.p = new int[m][];
+        this.s = new int[m][][];
+        for (int k = 0; k < m; ++k) {
+            p[k] = Arrays.copyOf(problem.p[k], capacity);
+            s[k] = new int[capacity][];
+            for (int i = 0; i < capacity; ++i) {
+                s[k][i] = (i < n ? Arrays.copyOf(problem.s[k][i], capacity) : new int[capacity]);
+            }
+        }
+        this.unavailable = createUnavailable(capacity);
+
+        // All jobs are active and all machines are online
+        this.active = new boolean[capacity];
+        Arrays.fill(active, 0, n, true);
+        this.online = new boolean[m];
+        Arrays.fill(online, true);
+
+        // Neighborhoods in the order they are explored by the descent (cheapest first)
+        this.neighborhoods = Arrays.asList(new Shift(), new Switch(), new TaskMove(),
+                new DirectSwap(), new Swap(), new TwoShift());
+
+        this.problem = createProblem();
+        this.solution = copy(solution, this.problem, -1);
+    }
+
+    /**
+     * Add a new job and insert it into the schedule.
+     * @param processing Processing times of the new job on each machine.
+     * @param setupTo Setup times from each job to the new job ({@code setupTo[k][i]} is the
+     *                setup time between job i and the new job on machine k).
+     * @param setupFrom Setup times from the new job to each job ({@code setupFrom[k][j]} is the
+     *                  setup time between the new job and job j on machine k).
+     * @return Index of the new job.
+     */
+    public int addJob(int[] processing, int[][] setupTo, int[][] setupFrom) {
+        if (processing.length != m || setupTo.length != m || setupFrom.length != m) {
+            throw new IllegalArgumentException("The times of the new job must be given for all " + m + " machines.");
+        }
+        for (int k = 0; k < m; ++k) {
+            if (setupTo[k].length < n || setupFrom[k].length < n) {
+                throw new IllegalArgumentException("The setup times must be given for all " + n + " jobs.");
+            }
+        }
+
+        // Store the times of the new job
+        ensureCapacity(n + 1);
+        int job = n;
+        for (int k = 0; k < m; ++k) {
+            p[k][job] = processing[k];
+            for (int i = 0; i < n; ++i) {
+                s[k][i][job] = setupTo[k][i];
+                s[k][job][i] = setupFrom[k][i];
+            }
+            s[k][job][job] = 0;
+        }
+        active[job] = true;
+        ++n;
+
+        // Same schedule on the new version of the problem
+        problem = createProblem();
+        solution = copy(solution, problem, -1);
+
+        // Repair: insert the new job at its best position
+        Insertion insertion = Insertion.best(problem, solution, job);
+        solution.add(job, insertion.machine, insertion.position, true);
+        improve();
+
+        return job;
+    }
+
+    /**
+     * Cancel a job and remove it from the schedule.
+     * @param job The job.
+     */
+    public void cancelJob(int job) {
+        if (job < 0 || job >= n || !active[job]) {
+            throw new IllegalArgumentException("Job " + job + " is not scheduled.");
+        }
+
+        // Remove the job
+        int k = solution.getAssignment(job);
+        for (int position = 0; position < solution.count(k); ++position) {
+            if (solution.get(k, position) == job) {
+                solution.remove(k, position, true);
+                break;
+            }
+        }
+        active[job] = false;
+
+        // Repair
+        improve();
+    }
+
+    /**
+     * Take a machine offline and reschedule its jobs on the other machines.
+     * @param k The machine.
+     */
+    public void machineOffline(int k) {
+        if (k < 0 || k >= m || !online[k]) {
+            throw new IllegalArgumentException("Machine " + k + " is not online.");
+        }
+        int count = 0;
+        for (boolean machine : online) {
+            count += (machine ? 1 : 0);
+        }
+        if (count == 1) {
+            throw new IllegalStateException("At least one machine must remain online.");
+        }
+
+        // Jobs of the machine in decreasing order of their shortest processing time
+        List<Integer> jobs = new ArrayList<>(solution.count(k));
+        for (int position = 0; position < solution.count(k); ++position) {
+            jobs.add(solution.get(k, position));
+        }
+        online[k] = false;
+        jobs.sort((job1, job2) -> Integer.compare(shortestProcessingTime(job2), shortestProcessingTime(job1)));
+
+        // Same schedule on the new version of the problem, but without the jobs of the machine
+        problem = createProblem();
+        solution = copy(solution, problem, k);
+
+        // Repair: insert the jobs at their best positions
+        Insertion insertion = new Insertion();
+        for (int job : jobs) {
+            Insertion.best(problem, solution, job, insertion);
+            solution.add(job, insertion.machine, insertion.position, false);
+        }
+        solution.update();
+        improve();
+    }
+
+    /**
+     * Bring a machine back online and move jobs to it, if this improves the schedule.
+     * @param k The machine.
+     */
+    public void machineOnline(int k) {
+        if (k < 0 || k >= m || online[k]) {
+            throw new IllegalArgumentException("Machine " + k + " is not offline.");
+        }
+
+        // Same schedule on the new version of the problem
+        online[k] = true;
+        problem = createProblem();
+        solution = copy(solution, problem, -1);
+
+        // Repair
+        improve();
+    }
+
+    /**
+     * Return the current version of the problem (the processing times of the offline machines are
+     * replaced by a value larger than any makespan).
+     * @return The problem instance.
+     */
+    public Problem getProblem() {
+        return problem;
+    }
+
+    /**
+     * Return a copy of the current schedule.
+     * @return The current schedule.
+     */
+    public Solution getSolution() {
+        return new Solution(solution);
+    }
+
+    /**
+     * Return true if the job was added and not cancelled.
+     * @param job The job.
+     * @return True if the job is scheduled, or false otherwise.
+     */
+    public boolean isActive(int job) {
+        return job >= 0 && job < n && active[job];
+    }
+
+    /**
+     * Return true if the machine is online.
+     * @param k The machine.
+     * @return True if the machine is online, or false otherwise.
+     */
+    public boolean isOnline(int k) {
+        return online[k];
+    }
+
+
+    // --------------------------------------------------------------------------------------------
+    // Auxiliary methods
+    // --------------------------------------------------------------------------------------------
+
+    /**
+     * Improve the current schedule by a variable neighborhood descent limited in time.
+     */
+    private void improve() {
+        Timer timer = new Timer(true);
+        StopCondition stopCondition = new StopConditions(Arrays.asList(new Interruption(), new TimeLimit(timeLimit)));
+        solution = IteratedLocalSearch.descent(problem, solution, neighborhoods, stopCondition, 0L, timer);
+        solution.update();
+    }
+
+    /**
+     * Create a version of the problem with the current jobs and machines.
+     * @return The problem instance.
+     */
+    private Problem createProblem() {
+        int[][] times = new int[m][];
+        for (int k = 0; k < m; ++k) {
+            times[k] = (online[k] ? p[k] : unavailable);
+        }
+        return new Problem(n, m, times, s);
+    }
+
+    /**
+     * Copy a schedule to another version of the problem.
+     * @param source The schedule.
+     * @param target The version of the problem.
+     * @param skip A machine whose jobs are not copied (or -1 to copy all jobs).
+     * @return The copy of the schedule.
+     */
+    private Solution copy(Solution source, Problem target, int skip) {
+        Solution copy = new Solution(target);
+        for (int k = 0; k < m; ++k) {
+            if (k != skip) {
+                for (int position = 0; position < source.count(k); ++position) {
+                    copy.add(source.get(k, position), k, false);
+                }
+            }
+        }
+        copy.update();
+        return copy;
+    }
+
+    /**
+     * Make sure the arrays can store the data of the given number of jobs. The arrays grow by a
+     * factor of 1.5, so the cost of growing is amortized among the jobs added. New arrays are
+     * allocated, so the data of the previous versions of the problem is not changed.
+     * @param jobs Number of jobs.
+     */
+    private void ensureCapacity(int jobs) {
+        if (jobs <= capacity) {
+            return;
+        }
+
+        capacity = Math.max(jobs, capacity + capacity / 2);
+        int[][] newP = new int[m][];
+        int[][][] newS = new int[m][][];
+        for (int k = 0; k < m; ++k) {
+            newP[k] = Arrays.copyOf(p[k], capacity);
+            newS[k] = new int[capacity][];
+            for (int i = 0; i < capacity; ++i) {
+                newS[k][i] = (i < n ? Arrays.copyOf(s[k][i], capacity) : new int[capacity]);
+            }
+        }
+        p = newP;
+        s = newS;
+        unavailable = createUnavailable(capacity);
+        active = Arrays.copyOf(active, capacity);
+    }
+
+    /**
+     * Create the processing times of an offline machine. The value is large enough to exceed any
+     * makespan of the online machines, but small enough to avoid overflow in the sum of the
+     * machines' makespan.
+     * @param size Size of the array.
+     * @return The processing times.
+     */
+    private int[] createUnavailable(int size) {
+        int[] times = new int[size];
+        Arrays.fill(times, Integer.MAX_VALUE / (2 * m));
+        return times;
+    }
+
+    private int shortestProcessingTime(int job) {
+        int min = Integer.MAX_VALUE;
+        for (int k = 0; k < m; ++k) {
+            if (online[k]) {
+                min = Math.min(min, p[k][job]);
+            }
+        }
+        return min;
+    }
+
+}
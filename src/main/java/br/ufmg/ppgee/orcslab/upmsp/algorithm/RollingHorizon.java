@@ -0,0 +1,261 @@
+package br.ufmg.ppgee.orcslab.upmsp.algorithm;
+
+import br.ufmg.ppgee.orcslab.upmsp.problem.Problem;
+import br.ufmg.ppgee.orcslab.upmsp.problem.Solution;
+import br.ufmg.ppgee.orcslab.upmsp.util.Insertion;
+
+import java.util.*;
+
+/**
+ * Rolling horizon scheduler for jobs that arrive over time. The jobs (and their processing and
+ * setup times) are taken from a catalog instance, but they are known only when they arrive. The
+ * jobs whose processing has started (i.e., the machine has started its setup) are committed and
+ * never change; at each arrival, only the uncommitted tail of the machines' sequences is
+ * optimized again by the {@link SimulatedAnnealing}, starting from the current plan.
+ * <p>
+ * The tail is optimized as a problem instance of its own, in which the committed prefix of each
+ * machine is represented by a pseudo job that must be the first one of the machine: its
+ * processing time is the time the machine becomes available, its setup times to the other jobs
+ * are the ones of the last committed job, and it is forced to the start of its machine by very
+ * large processing and setup times elsewhere. The times are in the same unit of the processing
+ * times.
+ */
+public class RollingHorizon {
+
+    private final Problem problem;
+    private final Random random;
+    private final Map<String, Object> parameters;
+    private final int horizon;
+    private final List<List<Integer>> committed;
+    private final List<List<Integer>> plan;
+    private final int[] start;
+    private final int[] completion;
+    private final boolean[] arrived;
+    private int time;
+
+    /**
+     * Constructor.
+     * @param problem The catalog instance with the data of all jobs that may arrive.
+     * @param random A random number generator.
+     * @param parameters Parameters of the simulated annealing (the time limit is the time
+     *                   available to handle each arrival).
+     * @param horizon Jobs planned to start up to this time after the current time are also
+     *                committed (0 commits only the jobs that have already started).
+     */
+    public RollingHorizon(Problem problem, Random random, Map<String, Object> parameters, int horizon) {
+        this.problem = problem;
+        this.random = random;
+        this.parameters = parameters;
+        this.horizon = horizon;
+        this.committed = new ArrayList<>(problem.m);
+        this.plan = new ArrayList<>(problem.m);
+        for (int k = 0; k < problem.m; ++k) {
+            committed.add(new ArrayList<>());
+            plan.add(new ArrayList<>());
+        }
+        this.start = new int[problem.n];
+        this.completion = new int[problem.n];
+        this.arrived = new boolean[problem.n];
+        this.time = 0;
+    }
+
+    /**
+     * Handle the arrival of a job: commit the jobs started up to the arrival time, insert the new
+     * job into the plan and optimize the uncommitted jobs.
+     * @param time Arrival time (it must not be earlier than the previous arrival).
+     * @param job The job (index in the catalog instance).
+     */
+    public void arrive(int time, int job) {
+        if (job < 0 || job >= problem.n) {
+            throw new IllegalArgumentException("Job " + job + " is not in the instance.");
+        }
+        if (arrived[job]) {
+            throw new IllegalArgumentException("Job " + job + " has already arrived.");
+        }
+
+        advance(time);
+        arrived[job] = true;
+        optimize(job);
+    }
+
+    /**
+     * Advance the current time, committing the jobs that start up to the time (plus the horizon).
+     * @param time The current time (it must not be earlier than the previous one).
+     */
+    public void advance(int time) {
+        if (time < this.time) {
+            throw new IllegalArgumentException("Time " + time + " is earlier than the current time " + this.time + ".");
+        }
+
+        this.time = time;
+        for (int k = 0; k < problem.m; ++k) {
+            List<Integer> tail = plan.get(k);
+            while (!tail.isEmpty() && start[tail.get(0)] <= (long) time + horizon) {
+                committed.get(k).add(tail.remove(0));
+            }
+        }
+    }
+
+    /**
+     * Commit all planned jobs (e.g., at the end of the stream of arrivals).
+     */
+    public void finish() {
+        for (int k = 0; k < problem.m; ++k) {
+            committed.get(k).addAll(plan.get(k));
+            plan.get(k).clear();
+        }
+    }
+
+    /**
+     * Return the committed jobs of a machine, in the order they are processed.
+     * @param k The machine.
+     * @return The committed jobs.
+     */
+    public List<Integer> getCommitted(int k) {
+        return Collections.unmodifiableList(committed.get(k));
+    }
+
+    /**
+     * Return the planned (uncommitted) jobs of a machine, in the order they are processed.
+     * @param k The machine.
+     * @return The planned jobs.
+     */
+    public List<Integer> getPlan(int k) {
+        return Collections.unmodifiableList(plan.get(k));
+    }
+
+    /**
+     * Return the time the machine starts to process a job (including its setup).
+     * @param job The job.
+     * @return The start time.
+     */
+    public int getStart(int job) {
+        return start[job];
+    }
+
+    /**
+     * Return the completion time of a job.
+     * @param job The job.
+     * @return The completion time.
+     */
+    public int getCompletion(int job) {
+        return completion[job];
+    }
+
+    /**
+     * Return the completion time of the last job (committed or planned).
+     * @return The makespan.
+     */
+    public int getMakespan() {
+        int makespan = 0;
+        for (int k = 0; k < problem.m; ++k) {
+            List<Integer> sequence = (plan.get(k).isEmpty() ? committed.get(k) : plan.get(k));
+            if (!sequence.isEmpty()) {
+                makespan = Math.max(makespan, completion[sequence.get(sequence.size() - 1)]);
+            }
+        }
+        return makespan;
+    }
+
+
+    // --------------------------------------------------------------------------------------------
+    // Auxiliary methods
+    // --------------------------------------------------------------------------------------------
+
+    /**
+     * Insert a new job into the plan and optimize the uncommitted jobs.
+     * @param job The new job.
+     */
+    private void optimize(int job) {
+        int m = problem.m;
+
+        // Jobs of the tail: the planned jobs, the new one and a pseudo job for each machine
+        List<Integer> jobs = new ArrayList<>();
+        for (List<Integer> tail : plan) {
+            jobs.addAll(tail);
+        }
+        jobs.add(job);
+        int count = jobs.size();
+        int n = count + m;
+
+        // Large enough to exceed any makespan, but small enough to avoid overflow
+        int big = Integer.MAX_VALUE / (4 * m);
+
+        // Create the instance of the tail
+        int[] ready = new int[m];
+        int[][] p = new int[m][n];
+        int[][][] s = new int[m][n][n];
+        for (int k = 0; k < m; ++k) {
+            int last = lastCommitted(k);
+            ready[k] = (last < 0 ? time : Math.max(time, completion[last]));
+
+            for (int i = 0; i < count; ++i) {
+                int job1 = jobs.get(i);
+                p[k][i] = problem.p[k][job1];
+                for (int j = 0; j < count; ++j) {
+                    s[k][i][j] = problem.s[k][job1][jobs.get(j)];
+                }
+
+                // Setup after the committed prefix
+                s[k][count + k][i] = (last < 0 ? 0 : problem.s[k][last][job1]);
+            }
+
+            // Pseudo jobs: the one of machine k is only allowed at its start
+            for (int pseudo = count; pseudo < n; ++pseudo) {
+                p[k][pseudo] = (pseudo == count + k ? ready[k] : big);
+                for (int i = 0; i < n; ++i) {
+                    s[k][i][pseudo] = big;
+                }
+            }
+        }
+        Problem tail = new Problem(n, m, p, s);
+
+        // Start solution: the current plan with the new job at its best position
+        Map<Integer, Integer> index = new HashMap<>();
+        for (int i = 0; i < count; ++i) {
+            index.put(jobs.get(i), i);
+        }
+        Solution initialSolution = new Solution(tail);
+        for (int k = 0; k < m; ++k) {
+            initialSolution.add(count + k, k, false);
+            for (int planned : plan.get(k)) {
+                initialSolution.add(index.get(planned), k, false);
+            }
+        }
+        initialSolution.update();
+        Insertion insertion = Insertion.best(tail, initialSolution, count - 1);
+        initialSolution.add(count - 1, insertion.machine, insertion.position, true);
+
+        // Optimize the tail
+        Map<String, Object> params = new HashMap<>(parameters);
+        params.put("initial-solution", initialSolution);
+        Solution solution = new SimulatedAnnealing().solve(tail, random, params, null);
+        if (solution.getMakespan() >= big) {
+            solution = initialSolution;
+        }
+
+        // Update the plan and the times of the planned jobs
+        for (int k = 0; k < m; ++k) {
+            assert solution.get(k, 0) == count + k : "The pseudo job is not the first of its machine";
+            List<Integer> sequence = plan.get(k);
+            sequence.clear();
+
+            int previous = lastCommitted(k);
+            int current = ready[k];
+            for (int idx = 1; idx < solution.count(k); ++idx) {
+                int next = jobs.get(solution.get(k, idx));
+                start[next] = current;
+                current += (previous < 0 ? 0 : problem.s[k][previous][next]) + problem.p[k][next];
+                completion[next] = current;
+                sequence.add(next);
+                previous = next;
+            }
+        }
+    }
+
+    private int lastCommitted(int k) {
+        List<Integer> prefix = committed.get(k);
+        return (prefix.isEmpty() ? -1 : prefix.get(prefix.size() - 1));
+    }
+
+}
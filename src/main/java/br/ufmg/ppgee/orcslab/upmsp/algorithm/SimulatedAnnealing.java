@@ -1,12 +1,22 @@
 package br.ufmg.ppgee.orcslab.upmsp.algorithm;
 
+import br.ufmg.ppgee.orcslab.upmsp.algorithm.stop.StopCondition;
+import br.ufmg.ppgee.orcslab.upmsp.algorithm.stop.StopConditions;
 import br.ufmg.ppgee.orcslab.upmsp.neighborhood.*;
 import br.ufmg.ppgee.orcslab.upmsp.problem.Problem;
 import br.ufmg.ppgee.orcslab.upmsp.problem.Solution;
+import br.ufmg.ppgee.orcslab.upmsp.sequencing.MachineSequencer;
+import br.ufmg.ppgee.orcslab.upmsp.util.Comparator;
 import br.ufmg.ppgee.orcslab.upmsp.util.Timer;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * This algorithm implements a heuristic based on the simulated annealing. This implementation
@@ -45,69 +55,143 @@ public class SimulatedAnnealing extends AbstractAlgorithm {
         long defaultTime = problem.n * (problem.m / 2) * t;
 
         // Get heuristic parameters
-        long timeLimit = (long) parameters.getOrDefault("time-limit", defaultTime);
-        long iterationsLimit = (long) parameters.getOrDefault("iterations-limit", Long.MAX_VALUE);
         long iterationsPerTemperature = (long) parameters.getOrDefault("iterations-per-temperature", 1176628L);
         double initialTemperature = (double) parameters.getOrDefault("initial-temperature", 1.0);
         double coolingRate = (double) parameters.getOrDefault("cooling-rate", 0.96);
+        long sequencingInterval = (long) parameters.getOrDefault("sequencing-interval", 0L);
+        int threads = (int) parameters.getOrDefault("threads", 1);
+        boolean adaptive = (boolean) parameters.getOrDefault("adaptive-selection", false);
+        double adaptationDecay = (double) parameters.getOrDefault("adaptation-decay", 0.99);
+        double minProbability = (double) parameters.getOrDefault("min-probability", 0.03);
+        boolean calibration = (boolean) parameters.getOrDefault("temperature-calibration", false);
+        long timeLimit = (long) parameters.getOrDefault("time-limit", defaultTime);
+        long iterationsLimit = (long) parameters.getOrDefault("iterations-limit", Long.MAX_VALUE);
+        int eliteSize = (int) parameters.getOrDefault("elite-size", 0);
+        int eliteDistance = (int) parameters.getOrDefault("elite-distance", Math.max(1, problem.n / 50));
+        long relinkingInterval = (long) parameters.getOrDefault("relinking-interval", 1000L);
 
-        // List of neighborhoods available
-        List<Neighborhood> neighborhoods = null;
-        if (!parameters.containsKey("disabled-neighborhoods")) {
-            neighborhoods = Arrays.asList(
-                    new Shift(), new Switch(), new TaskMove(),
-                    new Swap(), new TwoShift(), new DirectSwap()
-            );
-        } else {
-            List<String> disabled = (List<String>) parameters.get("disabled-neighborhoods");
-            neighborhoods = new ArrayList<>();
-            if (!disabled.contains("shift")) neighborhoods.add(new Shift());
-            if (!disabled.contains("switch")) neighborhoods.add(new Switch());
-            if (!disabled.contains("task-move")) neighborhoods.add(new TaskMove());
-            if (!disabled.contains("swap")) neighborhoods.add(new Swap());
-            if (!disabled.contains("two-shift")) neighborhoods.add(new TwoShift());
-            if (!disabled.contains("direct-swap")) neighborhoods.add(new DirectSwap());
-        }
-
-        // Create a random solution as start solution
-        RandomHeuristic randomHeuristic = new RandomHeuristic();
-        Solution solution = randomHeuristic.solve(problem, random, null, null);
+        // Stop conditions (time limit, iterations limit, target makespan, etc.)
+        StopCondition stopCondition = StopConditions.fromParameters(problem, parameters, defaultTime, Long.MAX_VALUE);
 
-        // Make the initial solution as the incumbent one
-        Solution bestSolution = new Solution(solution);
+        // List of neighborhoods available
+        List<Neighborhood> neighborhoods = createNeighborhoods(parameters,
+                "shift", "switch", "task-move", "swap", "two-shift", "direct-swap");
 
-        // Notify callback about the initial solution
-        callback.onNewIncumbent(new Solution(bestSolution), 0L, 0L);
+        // Statistics of the neighborhoods and adaptive selection, if required
+        NeighborhoodSelector selector = new NeighborhoodSelector(neighborhoods, adaptationDecay, minProbability);
 
         // Initialize the algorithm attributes
+        Solution solution;
+        Solution bestSolution;
         long totalIterations = 0L;
         long iterationsInTemperature = 0L;
         double currentTemperature = initialTemperature;
+        double finalTemperature = 0.0;
+        boolean resumed = parameters.containsKey("resume");
+        Timer timer;
+
+        if (resumed) {
+
+            // Restore the state of a previous run, including its cooling schedule (the
+            // temperatures are not calibrated again)
+            Checkpoint checkpoint = (Checkpoint) parameters.get("resume");
+            solution = new Solution(checkpoint.solution);
+            bestSolution = new Solution(checkpoint.bestSolution);
+            totalIterations = checkpoint.iterations;
+            iterationsInTemperature = checkpoint.iterationsInTemperature;
+            currentTemperature = checkpoint.temperature;
+            if (!Double.isNaN(checkpoint.initialTemperature)) {
+                initialTemperature = checkpoint.initialTemperature;
+                finalTemperature = checkpoint.finalTemperature;
+            }
+            calibration = (finalTemperature > 0.0);
+            random = checkpoint.getRandom();
+            timer = new Timer(true);
+            timer.advance(checkpoint.time, TimeUnit.NANOSECONDS);
+            timer.stop();
+        } else {
+
+            // Create the start solution (a random one, by default)
+            solution = createInitialSolution(problem, random, parameters);
+            timer = new Timer(true);
+            timer.stop();
+
+            // Make the initial solution as the incumbent one
+            bestSolution = new Solution(solution);
+        }
+
+        // Notify callback and stop conditions about the initial solution
+        callback.onNewIncumbent(new Solution(bestSolution), totalIterations, timer.count(TimeUnit.NANOSECONDS));
+        stopCondition.onNewIncumbent(totalIterations, timer.count(), bestSolution.getMakespan());
+
+        // Periodic checkpoints, if required
+        CheckpointWriter checkpointWriter = null;
+        long checkpointInterval = (long) parameters.getOrDefault("checkpoint-interval", 60000L);
+        long lastCheckpoint = timer.count();
+        if (parameters.containsKey("checkpoint-file")) {
+            checkpointWriter = new CheckpointWriter(Paths.get((String) parameters.get("checkpoint-file")), problem);
+        }
+
+        // Intensification by sequencing the jobs of all machines (in parallel, if required)
+        MachineSequencer sequencer = (sequencingInterval > 0 ? createSequencer(parameters) : null);
+        ExecutorService sequencingExecutor = (sequencer != null && threads > 1 ? Executors.newFixedThreadPool(threads) : null);
+
+        // Intensification by path relinking with the elite solutions (the pool may be shared by
+        // algorithms that run concurrently)
+        ElitePool elitePool = (ElitePool) parameters.get("elite-pool");
+        if (elitePool == null && eliteSize > 0) {
+            elitePool = new ElitePool(problem, eliteSize, eliteDistance);
+        }
+        Comparator comparator = new Comparator();
+        if (elitePool != null) {
+            elitePool.add(bestSolution);
+        }
 
         // Start timer
-        Timer timer = new Timer(true);
+        timer.start();
+
+        // Calibrate the initial and final temperatures from the changes caused by random moves
+        if (calibration && !resumed) {
+            double[] temperatures = calibrate(problem, solution, neighborhoods, random, parameters, timeLimit, timer);
+            if (temperatures != null) {
+                initialTemperature = temperatures[0];
+                finalTemperature = temperatures[1];
+                currentTemperature = initialTemperature;
+            } else {
+                calibration = false;
+            }
+        }
 
-        // Main loop: stop when time limit is reached or iterations limit is reached
-        while (timer.count() < timeLimit && totalIterations < iterationsLimit) {
+        // Main loop: stop when any stop condition is satisfied
+        while (!stopCondition.isSatisfied(totalIterations, timer.count())) {
 
             // Update iteration counters
             ++totalIterations;
             ++iterationsInTemperature;
 
-            // Use intensification policy?
-            boolean intensification = random.nextBoolean();
-
-            // Use makespan machine?
-            int target = random.nextBoolean() ? solution.getMakespanMachine() : random.nextInt(problem.m);
+            // Choose the neighborhood and whether the intensification policy is used, either
+            // adaptively or at random
+            int arm;
+            int target;
+            if (adaptive) {
+                arm = selector.select(random);
+                target = random.nextBoolean() ? solution.getMakespanMachine() : random.nextInt(problem.m);
+            } else {
+                boolean intensification = random.nextBoolean();
+                target = random.nextBoolean() ? solution.getMakespanMachine() : random.nextInt(problem.m);
+                arm = selector.arm(random.nextInt(neighborhoods.size()), intensification);
+            }
 
             // Perform the move
-            Neighborhood neighborhood = neighborhoods.get(random.nextInt(neighborhoods.size()));
+            Neighborhood neighborhood = selector.getNeighborhood(arm);
             Solution trialSolution = null;
-            if (intensification) {
+            long moveStart = System.nanoTime();
+            if (selector.isIntensification(arm)) {
                 trialSolution = neighborhood.getBestNeighbor(problem, solution, target);
             } else {
                 trialSolution = neighborhood.getAnyNeighbor(problem, solution, random, target);
             }
+            long moveTime = System.nanoTime() - moveStart;
 
             /* Check for improvement
              * NOTE: In the paper, the authors describe delta as:
@@ -121,27 +205,78 @@ public class SimulatedAnnealing extends AbstractAlgorithm {
 
                 // Accept the move
                 solution = trialSolution;
+                selector.update(arm, moveTime, delta, true);
 
                 // Update the incumbent solution
                 if (solution.getMakespan() < bestSolution.getMakespan()) {
                     bestSolution = new Solution(solution);
+                    if (elitePool != null) {
+                        elitePool.add(bestSolution);
+                    }
 
                     // Callback
                     timer.stop();
                     callback.onNewIncumbent(new Solution(bestSolution), totalIterations, timer.count(TimeUnit.NANOSECONDS));
+                    callback.onNeighborhoodUsage(selector.getUsage(), totalIterations, timer.count(TimeUnit.NANOSECONDS));
+                    stopCondition.onNewIncumbent(totalIterations, timer.count(), bestSolution.getMakespan());
                     timer.start();
                 }
 
             } else {
 
                 // May accept the move with a probability exp(-delta / currentTemperature)
-                if (random.nextDouble() < Math.exp(-delta / currentTemperature)) {
+                boolean accept = random.nextDouble() < Math.exp(-delta / currentTemperature);
+                if (accept) {
                     solution = trialSolution;
                 }
+                selector.update(arm, moveTime, delta, accept);
             }
 
-            // Update temperature
-            if (iterationsInTemperature >= iterationsPerTemperature) {
+            // Intensification: sequence the jobs of all machines of the current solution
+            if (sequencer != null && totalIterations % sequencingInterval == 0
+                    && sequencer.improveAll(problem, solution, sequencingExecutor) > 0
+                    && solution.getMakespan() < bestSolution.getMakespan()) {
+                bestSolution = new Solution(solution);
+
+                // Callback
+                timer.stop();
+                callback.onNewIncumbent(new Solution(bestSolution), totalIterations, timer.count(TimeUnit.NANOSECONDS));
+                stopCondition.onNewIncumbent(totalIterations, timer.count(), bestSolution.getMakespan());
+                timer.start();
+            }
+
+            // Intensification: walk the path from the current solution to an elite solution, and
+            // continue from the best solution of the path if its makespan is better than the one
+            // of the current solution
+            if (elitePool != null && relinkingInterval > 0 && totalIterations % relinkingInterval == 0) {
+                elitePool.add(solution);
+                Solution guide = elitePool.select(random);
+                Solution relinked = (guide != null ? PathRelinking.relink(problem, solution, guide) : null);
+                if (relinked != null && comparator.compare(relinked, solution) < 0) {
+                    solution = relinked;
+                    if (solution.getMakespan() < bestSolution.getMakespan()) {
+                        bestSolution = new Solution(solution);
+                        elitePool.add(bestSolution);
+
+                        // Callback
+                        timer.stop();
+                        callback.onNewIncumbent(new Solution(bestSolution), totalIterations, timer.count(TimeUnit.NANOSECONDS));
+                        stopCondition.onNewIncumbent(totalIterations, timer.count(), bestSolution.getMakespan());
+                        timer.start();
+                    }
+                }
+            }
+
+            // Update temperature: if calibrated, the temperature decreases geometrically along
+            // the budget (time or iterations), from the initial temperature to the final one
+            if (calibration) {
+                if (totalIterations % 100L == 0L) {
+                    double progress = Math.max(timer.count() / (double) timeLimit,
+                            totalIterations / (double) iterationsLimit);
+                    currentTemperature = initialTemperature
+                            * Math.pow(finalTemperature / initialTemperature, Math.min(1.0, progress));
+                }
+            } else if (iterationsInTemperature >= iterationsPerTemperature) {
                 iterationsInTemperature = 0L;
                 currentTemperature = coolingRate * currentTemperature;
 
@@ -150,6 +285,28 @@ public class SimulatedAnnealing extends AbstractAlgorithm {
                     currentTemperature = initialTemperature;
                 }
             }
+
+            // Save a checkpoint (the file is written in background)
+            if (checkpointWriter != null && timer.count() - lastCheckpoint >= checkpointInterval) {
+                lastCheckpoint = timer.count();
+                checkpointWriter.submit(new Checkpoint(new Solution(solution), new Solution(bestSolution),
+                        currentTemperature, initialTemperature, finalTemperature, totalIterations,
+                        iterationsInTemperature, timer.count(TimeUnit.NANOSECONDS), random));
+            }
+        }
+
+        // Report the statistics of the neighborhoods at the end of the run
+        timer.stop();
+        callback.onNeighborhoodUsage(selector.getUsage(), totalIterations, timer.count(TimeUnit.NANOSECONDS));
+
+        // Save the final state, so the run can be continued later
+        if (sequencingExecutor != null) {
+            sequencingExecutor.shutdownNow();
+        }
+        if (checkpointWriter != null) {
+            checkpointWriter.close(new Checkpoint(new Solution(solution), new Solution(bestSolution),
+                    currentTemperature, initialTemperature, finalTemperature, totalIterations,
+                    iterationsInTemperature, timer.count(TimeUnit.NANOSECONDS), random));
         }
 
         // Return the best solution found
@@ -157,4 +314,124 @@ public class SimulatedAnnealing extends AbstractAlgorithm {
         return bestSolution;
     }
 
+
+    // --------------------------------------------------------------------------------------------
+    // Auxiliary methods
+    // --------------------------------------------------------------------------------------------
+
+    /**
+     * Calibrate the initial and final temperatures from the changes of the sum of the machines'
+     * makespan caused by random moves from the start solution. They are the temperatures in which
+     * the mean probability of accepting the sampled worsening moves is {@code initial-acceptance}
+     * (0.5 by default) and {@code final-acceptance} (0.001 by default), respectively. Up to
+     * {@code calibration-samples} moves (1000 by default) are sampled, within the share
+     * {@code calibration-time} (0.02 by default) of the time limit.
+     * @param problem The problem instance.
+     * @param solution The start solution.
+     * @param neighborhoods The neighborhoods used by the algorithm.
+     * @param random A random number generator.
+     * @param parameters Algorithm parameters.
+     * @param timeLimit The time limit (in milliseconds).
+     * @param timer The timer of the algorithm.
+     * @return The initial and final temperatures, or null if no worsening move is sampled.
+     */
+    private static double[] calibrate(Problem problem, Solution solution, List<Neighborhood> neighborhoods,
+                                      Random random, Map<String, Object> parameters, long timeLimit, Timer timer) {
+        int samples = (int) parameters.getOrDefault("calibration-samples", 1000);
+        double initialAcceptance = (double) parameters.getOrDefault("initial-acceptance", 0.5);
+        double finalAcceptance = (double) parameters.getOrDefault("final-acceptance", 0.001);
+        double calibrationTime = (double) parameters.getOrDefault("calibration-time", 0.02);
+
+        // Sample the changes caused by random moves (as in the main loop)
+        int[] deltas = new int[samples];
+        int count = 0;
+        for (int sample = 0; sample < samples && timer.count() <= calibrationTime * timeLimit; ++sample) {
+            int target = random.nextBoolean() ? solution.getMakespanMachine() : random.nextInt(problem.m);
+            Neighborhood neighborhood = neighborhoods.get(random.nextInt(neighborhoods.size()));
+            Solution neighbor = neighborhood.getAnyNeighbor(problem, solution, random, target);
+            int delta = neighbor.getSumMachinesMakespan() - solution.getSumMachinesMakespan();
+            if (delta > 0) {
+                deltas[count++] = delta;
+            }
+        }
+
+        if (count == 0) {
+            return null;
+        }
+        return new double[] {temperature(deltas, count, initialAcceptance), temperature(deltas, count, finalAcceptance)};
+    }
+
+    /**
+     * Find the temperature in which the mean probability of accepting the moves with the given
+     * (positive) changes is the given one, by bisection on the logarithm of the temperature.
+     */
+    private static double temperature(int[] deltas, int count, double acceptance) {
+        double low = Math.log(1e-6);
+        double high = Math.log(1e9);
+        for (int step = 0; step < 100; ++step) {
+            double middle = (low + high) / 2.0;
+            double temperature = Math.exp(middle);
+            double mean = 0.0;
+            for (int idx = 0; idx < count; ++idx) {
+                mean += Math.exp(-deltas[idx] / temperature);
+            }
+            if (mean / count < acceptance) {
+                low = middle;
+            } else {
+                high = middle;
+            }
+        }
+        return Math.exp((low + high) / 2.0);
+    }
+
+    /**
+     * Write checkpoints in background, so the main loop is not stalled by I/O. A checkpoint is
+     * discarded if the previous one is still being written.
+     */
+    private static class CheckpointWriter {
+
+        private final Path path;
+        private final Problem problem;
+        private final ExecutorService executor;
+        private final AtomicBoolean pending;
+
+        public CheckpointWriter(Path path, Problem problem) {
+            this.path = path;
+            this.problem = problem;
+            this.pending = new AtomicBoolean(false);
+            this.executor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "checkpoint-writer");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        public void submit(Checkpoint checkpoint) {
+            if (pending.compareAndSet(false, true)) {
+                executor.execute(() -> {
+                    write(checkpoint);
+                    pending.set(false);
+                });
+            }
+        }
+
+        public void close(Checkpoint checkpoint) {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            write(checkpoint);
+        }
+
+        private void write(Checkpoint checkpoint) {
+            try {
+                checkpoint.write(path, problem);
+            } catch (IOException e) {
+                System.err.println("WARNING: Unable to write checkpoint: " + e.getMessage());
+            }
+        }
+    }
+
 }
@@ -0,0 +1,165 @@
+package br.ufmg.ppgee.orcslab.upmsp.algorithm;
+
+import br.ufmg.ppgee.orcslab.upmsp.problem.Problem;
+import br.ufmg.ppgee.orcslab.upmsp.problem.Solution;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Handle of an algorithm running asynchronously (see {@link AsyncSolver}).
+ */
+public class SolverHandle implements Callback {
+
+    /**
+     * Marks the end of the stream of improvements.
+     */
+    private static final Object END = new Object();
+
+    private final Callback callback;
+    private final CompletableFuture<Solution> future;
+    private final BlockingQueue<Object> improvements;
+    private volatile boolean streaming;
+    private Thread runner;
+    private volatile boolean cancelled;
+
+    /**
+     * Constructor. The handle may be created before the algorithm is submitted (see
+     * {@link AsyncSolver#submit(SolverHandle, Algorithm, Problem, Random, Map)}), e.g., to
+     * register it before the run starts; if it is cancelled before, the algorithm does not run.
+     * @param callback A callback object to forward the new incumbent solutions (it may be null).
+     */
+    public SolverHandle(Callback callback) {
+        this.callback = callback;
+        this.future = new CompletableFuture<>();
+        this.improvements = new LinkedBlockingQueue<>();
+        this.streaming = false;
+        this.runner = null;
+        this.cancelled = false;
+
+        // Cancelling the future also stops the algorithm
+        future.whenComplete((solution, exception) -> {
+            if (future.isCancelled()) {
+                cancel();
+            }
+        });
+    }
+
+    /**
+     * Return the future that is completed with the best solution found by the algorithm. If the
+     * run is cancelled with {@link #cancel()}, the future is completed with the best solution
+     * found up to the cancellation (or it is cancelled, if the algorithm has not started yet).
+     * @return The future of the result.
+     */
+    public CompletableFuture<Solution> getFuture() {
+        return future;
+    }
+
+    /**
+     * Stop the algorithm as soon as possible by interrupting the thread running it. The thread is
+     * interrupted only while it runs the algorithm of this handle (the runner is set and cleared
+     * under the same lock), so a late cancellation does not interrupt another run of the pool.
+     */
+    public void cancel() {
+        cancelled = true;
+        synchronized (this) {
+            if (runner != null) {
+                runner.interrupt();
+            }
+        }
+    }
+
+    /**
+     * Return true if the run was cancelled.
+     * @return True if the run was cancelled, or false otherwise.
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Return a stream with the incumbent solutions found by the algorithm, in the order they
+     * are found. The stream blocks while waiting for the next improvement and ends when the
+     * algorithm finishes. It can be consumed only once. The incumbent solutions are kept only
+     * after the first call to this method (so the handles whose improvements are not consumed do
+     * not keep all incumbent solutions), and the ones found before it are not in the stream.
+     * @return The stream of improvements.
+     */
+    public Stream<Incumbent> improvements() {
+        streaming = true;
+        Spliterator<Incumbent> spliterator = new Spliterators.AbstractSpliterator<Incumbent>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+
+            private boolean finished = false;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super Incumbent> action) {
+                if (finished) {
+                    return false;
+                }
+                try {
+                    Object next = improvements.take();
+                    if (next == END) {
+                        finished = true;
+                        improvements.add(END);
+                        return false;
+                    }
+                    action.accept((Incumbent) next);
+                    return true;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        };
+        return StreamSupport.stream(spliterator, false);
+    }
+
+    @Override
+    public void onNewIncumbent(Solution incumbent, long iteration, long time) {
+        if (streaming) {
+            improvements.add(new Incumbent(incumbent, iteration, time));
+        }
+        if (callback != null) {
+            callback.onNewIncumbent(incumbent, iteration, time);
+        }
+    }
+
+    /**
+     * Run the algorithm in the current thread and complete the future.
+     * @param solve Function that runs the algorithm.
+     */
+    void run(Supplier<Solution> solve) {
+        synchronized (this) {
+            Thread.interrupted();
+            runner = Thread.currentThread();
+        }
+        try {
+            if (cancelled || future.isDone()) {
+                future.cancel(false);
+            } else {
+                future.complete(solve.get());
+            }
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+        } finally {
+
+            // Clear the interrupted status before returning the thread to the pool
+            synchronized (this) {
+                runner = null;
+                Thread.interrupted();
+            }
+            improvements.add(END);
+        }
+    }
+
+}
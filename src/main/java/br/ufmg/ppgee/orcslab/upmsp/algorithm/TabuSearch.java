@@ -0,0 +1,183 @@
+package br.ufmg.ppgee.orcslab.upmsp.algorithm;
+
+import br.ufmg.ppgee.orcslab.upmsp.algorithm.stop.StopCondition;
+import br.ufmg.ppgee.orcslab.upmsp.algorithm.stop.StopConditions;
+import br.ufmg.ppgee.orcslab.upmsp.neighborhood.Neighborhood;
+import br.ufmg.ppgee.orcslab.upmsp.problem.Problem;
+import br.ufmg.ppgee.orcslab.upmsp.problem.Solution;
+import br.ufmg.ppgee.orcslab.upmsp.util.Comparator;
+import br.ufmg.ppgee.orcslab.upmsp.util.TabuTable;
+import br.ufmg.ppgee.orcslab.upmsp.util.Timer;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This algorithm implements a tabu search. At each iteration, a list of candidate neighbors is
+ * generated (the best neighbor of a random neighborhood and some random neighbors, with moves
+ * involving the makespan machine or a random one), and the search moves to the best candidate
+ * that is not tabu, even if it is worse than the current solution. Two memories are used, both
+ * stored in fixed-size hash tables (see {@link TabuTable}):
+ * <ul>
+ *     <li>the hashes of the solutions visited (see {@link Solution#getHash()}), so the search
+ *     does not cycle back to them;</li>
+ *     <li>the attributes of the recent moves: a job moved from a machine cannot return to it
+ *     for some iterations.</li>
+ * </ul>
+ * A tabu candidate is accepted if it improves the best solution found (aspiration criterion).
+ */
+public class TabuSearch extends AbstractAlgorithm {
+
+    /**
+     * Implement the tabu search.
+     * @param problem The problem instance.
+     * @param random A random number generator.
+     * @param parameters Algorithm parameters.
+     * @param callback A callback object.
+     * @return A solution of the problem.
+     */
+    @Override
+    protected Solution doSolve(Problem problem, Random random, Map<String, Object> parameters, Callback callback) {
+
+        // Compute default time limit as in the simulated annealing
+        long defaultTime = problem.n * (problem.m / 2) * 50;
+
+        // Get heuristic parameters
+        int candidates = (int) parameters.getOrDefault("candidates", 10);
+        int tenure = (int) parameters.getOrDefault("tabu-tenure", 10);
+        int tableSize = (int) parameters.getOrDefault("table-size", 1 << 16);
+
+        // Stop conditions (time limit, iterations limit, target makespan, etc.)
+        StopCondition stopCondition = StopConditions.fromParameters(problem, parameters, defaultTime, Long.MAX_VALUE);
+
+        // List of neighborhoods available
+        List<Neighborhood> neighborhoods = createNeighborhoods(parameters,
+                "shift", "switch", "task-move", "swap", "two-shift", "direct-swap");
+
+        // Memories of the visited solutions and of the attributes of the recent moves
+        TabuTable visited = new TabuTable(tableSize);
+        TabuTable attributes = new TabuTable(tableSize);
+        int[] moved = new int[2 * problem.n];
+
+        // Create the start solution
+        Comparator comparator = new Comparator();
+        Timer timer = new Timer(true);
+        Solution solution = createInitialSolution(problem, random, parameters);
+        Solution bestSolution = new Solution(solution);
+        long iterations = 0L;
+        visited.put(solution.getHash(), iterations);
+
+        // Notify callback and stop conditions about the initial solution
+        timer.stop();
+        callback.onNewIncumbent(new Solution(bestSolution), iterations, timer.count(TimeUnit.NANOSECONDS));
+        stopCondition.onNewIncumbent(iterations, timer.count(), bestSolution.getMakespan());
+        timer.start();
+
+        // Main loop: stop when any stop condition is satisfied
+        while (!stopCondition.isSatisfied(iterations, timer.count())) {
+            ++iterations;
+
+            // Use makespan machine?
+            int target = random.nextBoolean() ? solution.getMakespanMachine() : random.nextInt(problem.m);
+
+            // Best candidate that is not tabu
+            Solution bestCandidate = null;
+            for (int candidate = 0; candidate < candidates; ++candidate) {
+                Neighborhood neighborhood = neighborhoods.get(random.nextInt(neighborhoods.size()));
+                Solution neighbor = (candidate == 0 ? neighborhood.getBestNeighbor(problem, solution, target)
+                        : neighborhood.getAnyNeighbor(problem, solution, random, target));
+                neighbor.update();
+
+                // Skip the visited solutions and the tabu moves, unless the best solution is improved
+                if (neighbor.getMakespan() >= bestSolution.getMakespan()) {
+                    if (visited.contains(neighbor.getHash(), iterations, Long.MAX_VALUE)) {
+                        continue;
+                    }
+                    int count = moves(problem, solution, neighbor, moved);
+                    boolean tabu = false;
+                    for (int idx = 0; idx < count && !tabu; idx += 2) {
+                        tabu = attributes.contains(attribute(problem, moved[idx], moved[idx + 1]), iterations, tenure);
+                    }
+                    if (tabu) {
+                        continue;
+                    }
+                }
+
+                if (bestCandidate == null || comparator.compare(neighbor, bestCandidate) < 0) {
+                    bestCandidate = neighbor;
+                }
+            }
+
+            // All candidates are tabu: try other ones in the next iteration
+            if (bestCandidate == null) {
+                continue;
+            }
+
+            // The jobs moved cannot return to the machines they left for some iterations
+            int count = moves(problem, solution, bestCandidate, moved);
+            for (int idx = 0; idx < count; idx += 2) {
+                int job = moved[idx];
+                attributes.put(attribute(problem, job, solution.getAssignment(job)), iterations);
+            }
+
+            // Move to the candidate
+            solution = bestCandidate;
+            visited.put(solution.getHash(), iterations);
+
+            // Update the incumbent solution
+            if (comparator.compare(solution, bestSolution) < 0) {
+                bestSolution = new Solution(solution);
+
+                // Callback
+                timer.stop();
+                callback.onNewIncumbent(new Solution(bestSolution), iterations, timer.count(TimeUnit.NANOSECONDS));
+                stopCondition.onNewIncumbent(iterations, timer.count(), bestSolution.getMakespan());
+                timer.start();
+            }
+        }
+
+        // Return the best solution found
+        bestSolution.update();
+        return bestSolution;
+    }
+
+
+    // --------------------------------------------------------------------------------------------
+    // Auxiliary methods
+    // --------------------------------------------------------------------------------------------
+
+    /**
+     * Find the jobs assigned to other machines by a move. Only the machines whose number of jobs
+     * or makespan changed are checked.
+     * @param problem The problem instance.
+     * @param solution The solution before the move.
+     * @param neighbor The solution after the move.
+     * @param output Array in which the pairs (job, new machine) are stored.
+     * @return Number of values stored (twice the number of jobs moved).
+     */
+    private static int moves(Problem problem, Solution solution, Solution neighbor, int[] output) {
+        int count = 0;
+        for (int k = 0; k < problem.m; ++k) {
+            if (neighbor.count(k) != solution.count(k) || neighbor.getMakespan(k) != solution.getMakespan(k)) {
+                for (int idx = 0; idx < neighbor.count(k); ++idx) {
+                    int job = neighbor.get(k, idx);
+                    if (solution.getAssignment(job) != k) {
+                        output[count++] = job;
+                        output[count++] = k;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Key of the attribute "job assigned to machine".
+     */
+    private static long attribute(Problem problem, int job, int k) {
+        return (long) job * problem.m + k + 1;
+    }
+
+}
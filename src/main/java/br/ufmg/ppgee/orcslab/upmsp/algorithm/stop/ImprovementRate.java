@@ -0,0 +1,56 @@
+package br.ufmg.ppgee.orcslab.upmsp.algorithm.stop;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Stop when the relative improvement of the incumbent's makespan over a sliding time window is
+ * less than a minimum rate. For example, with a rate of 0.01 and a window of 10 seconds, the
+ * algorithm stops if the makespan was improved by less than 1% in the last 10 seconds.
+ */
+public class ImprovementRate implements StopCondition {
+
+    private final double minRate;
+    private final long window;
+
+    // Incumbents found within the window (plus the last one before it): pairs (time, makespan)
+    private final Deque<long[]> history;
+
+    /**
+     * Constructor.
+     * @param minRate The minimum relative improvement.
+     * @param window The size of the window (in milliseconds).
+     */
+    public ImprovementRate(double minRate, long window) {
+        this.minRate = minRate;
+        this.window = window;
+        this.history = new ArrayDeque<>();
+    }
+
+    @Override
+    public void onNewIncumbent(long iteration, long time, int makespan) {
+        history.addLast(new long[] {time, makespan});
+    }
+
+    @Override
+    public boolean isSatisfied(long iteration, long time) {
+        if (time < window || history.isEmpty()) {
+            return false;
+        }
+
+        // Discard incumbents that are no longer needed to know the makespan at the window start
+        long start = time - window;
+        while (history.size() > 1 && history.peekFirst()[0] <= start) {
+            long[] first = history.pollFirst();
+            if (history.peekFirst()[0] > start) {
+                history.addFirst(first);
+                break;
+            }
+        }
+
+        long before = history.peekFirst()[1];
+        long current = history.peekLast()[1];
+        return (before - current) < minRate * before;
+    }
+
+}
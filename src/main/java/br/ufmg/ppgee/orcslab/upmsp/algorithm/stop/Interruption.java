@@ -0,0 +1,19 @@
+package br.ufmg.ppgee.orcslab.upmsp.algorithm.stop;
+
+/**
+ * Stop when the thread running the algorithm is interrupted (e.g., when an asynchronous solve is
+ * cancelled). The interrupted status of the thread is not cleared.
+ */
+public class Interruption implements StopCondition {
+
+    @Override
+    public void onNewIncumbent(long iteration, long time, int makespan) {
+        /* Do nothing. */
+    }
+
+    @Override
+    public boolean isSatisfied(long iteration, long time) {
+        return Thread.currentThread().isInterrupted();
+    }
+
+}
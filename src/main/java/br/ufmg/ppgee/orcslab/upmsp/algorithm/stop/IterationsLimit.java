@@ -0,0 +1,28 @@
+package br.ufmg.ppgee.orcslab.upmsp.algorithm.stop;
+
+/**
+ * Stop when the number of iterations reaches a limit.
+ */
+public class IterationsLimit implements StopCondition {
+
+    private final long limit;
+
+    /**
+     * Constructor.
+     * @param limit The maximum number of iterations.
+     */
+    public IterationsLimit(long limit) {
+        this.limit = limit;
+    }
+
+    @Override
+    public void onNewIncumbent(long iteration, long time, int makespan) {
+        /* Do nothing. */
+    }
+
+    @Override
+    public boolean isSatisfied(long iteration, long time) {
+        return iteration >= limit;
+    }
+
+}
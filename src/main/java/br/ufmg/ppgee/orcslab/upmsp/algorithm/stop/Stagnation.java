@@ -0,0 +1,37 @@
+package br.ufmg.ppgee.orcslab.upmsp.algorithm.stop;
+
+/**
+ * Stop when the incumbent solution is not improved for a number of iterations or for an amount
+ * of time.
+ */
+public class Stagnation implements StopCondition {
+
+    private final long maxIterations;
+    private final long maxTime;
+    private long lastIteration;
+    private long lastTime;
+
+    /**
+     * Constructor.
+     * @param maxIterations Maximum number of iterations without improvement.
+     * @param maxTime Maximum time without improvement (in milliseconds).
+     */
+    public Stagnation(long maxIterations, long maxTime) {
+        this.maxIterations = maxIterations;
+        this.maxTime = maxTime;
+        this.lastIteration = 0L;
+        this.lastTime = 0L;
+    }
+
+    @Override
+    public void onNewIncumbent(long iteration, long time, int makespan) {
+        lastIteration = iteration;
+        lastTime = time;
+    }
+
+    @Override
+    public boolean isSatisfied(long iteration, long time) {
+        return iteration - lastIteration >= maxIterations || time - lastTime >= maxTime;
+    }
+
+}
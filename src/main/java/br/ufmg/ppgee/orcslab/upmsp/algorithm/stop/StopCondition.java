@@ -0,0 +1,26 @@
+package br.ufmg.ppgee.orcslab.upmsp.algorithm.stop;
+
+/**
+ * Common interface implemented by all stop conditions. Algorithms must notify the stop condition
+ * about each new incumbent solution (including the initial one) and check it once per iteration
+ * of their main loop, so implementations are expected to be cheap.
+ */
+public interface StopCondition {
+
+    /**
+     * Called when a new incumbent solution is found.
+     * @param iteration The current iteration.
+     * @param time The elapsed time (in milliseconds).
+     * @param makespan The makespan of the new incumbent solution.
+     */
+    void onNewIncumbent(long iteration, long time, int makespan);
+
+    /**
+     * Return true if the algorithm must stop.
+     * @param iteration The current iteration.
+     * @param time The elapsed time (in milliseconds).
+     * @return True if the algorithm must stop, or false otherwise.
+     */
+    boolean isSatisfied(long iteration, long time);
+
+}
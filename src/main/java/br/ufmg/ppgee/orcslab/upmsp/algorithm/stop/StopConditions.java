@@ -0,0 +1,90 @@
+package br.ufmg.ppgee.orcslab.upmsp.algorithm.stop;
+
+import br.ufmg.ppgee.orcslab.upmsp.problem.LowerBound;
+import br.ufmg.ppgee.orcslab.upmsp.problem.Problem;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A combination of stop conditions which is satisfied as soon as any of them is satisfied.
+ */
+public class StopConditions implements StopCondition {
+
+    private final StopCondition[] conditions;
+
+    /**
+     * Constructor.
+     * @param conditions The stop conditions to combine.
+     */
+    public StopConditions(List<StopCondition> conditions) {
+        this.conditions = conditions.toArray(new StopCondition[0]);
+    }
+
+    @Override
+    public void onNewIncumbent(long iteration, long time, int makespan) {
+        for (StopCondition condition : conditions) {
+            condition.onNewIncumbent(iteration, time, makespan);
+        }
+    }
+
+    @Override
+    public boolean isSatisfied(long iteration, long time) {
+        for (StopCondition condition : conditions) {
+            if (condition.isSatisfied(iteration, time)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Create the stop conditions from the algorithm parameters. The following parameters are
+     * considered: {@code time-limit}, {@code iterations-limit}, {@code target} (target makespan),
+     * {@code gap} (relative gap from the lower bound), {@code stagnation-iterations},
+     * {@code stagnation-time}, {@code min-improvement-rate} and {@code improvement-window}. The
+     * algorithm always stops if the incumbent solution reaches the lower bound of the instance or
+     * if the thread running it is interrupted.
+     * @param problem The problem instance.
+     * @param parameters Algorithm parameters.
+     * @param defaultTimeLimit Time limit (in milliseconds) used if it is not in the parameters.
+     * @param defaultIterationsLimit Iterations limit used if it is not in the parameters.
+     * @return The stop conditions.
+     */
+    public static StopConditions fromParameters(Problem problem, Map<String, Object> parameters,
+                                                long defaultTimeLimit, long defaultIterationsLimit) {
+        List<StopCondition> conditions = new ArrayList<>();
+
+        // Interruption of the thread
+        conditions.add(new Interruption());
+
+        // Limits of time and iterations
+        conditions.add(new TimeLimit((long) parameters.getOrDefault("time-limit", defaultTimeLimit)));
+        conditions.add(new IterationsLimit((long) parameters.getOrDefault("iterations-limit", defaultIterationsLimit)));
+
+        // Target makespan (or the lower bound)
+        int target = LowerBound.target(problem, (double) parameters.getOrDefault("gap", 0.0));
+        if (parameters.containsKey("target")) {
+            target = Math.max(target, (int) parameters.get("target"));
+        }
+        conditions.add(new TargetMakespan(target));
+
+        // Stagnation
+        if (parameters.containsKey("stagnation-iterations") || parameters.containsKey("stagnation-time")) {
+            conditions.add(new Stagnation(
+                    (long) parameters.getOrDefault("stagnation-iterations", Long.MAX_VALUE),
+                    (long) parameters.getOrDefault("stagnation-time", Long.MAX_VALUE)));
+        }
+
+        // Improvement rate
+        if (parameters.containsKey("min-improvement-rate")) {
+            conditions.add(new ImprovementRate(
+                    (double) parameters.get("min-improvement-rate"),
+                    (long) parameters.getOrDefault("improvement-window", 10000L)));
+        }
+
+        return new StopConditions(conditions);
+    }
+
+}
@@ -0,0 +1,30 @@
+package br.ufmg.ppgee.orcslab.upmsp.algorithm.stop;
+
+/**
+ * Stop when the makespan of the incumbent solution is less than or equal to a target value.
+ */
+public class TargetMakespan implements StopCondition {
+
+    private final int target;
+    private boolean reached;
+
+    /**
+     * Constructor.
+     * @param target The target makespan.
+     */
+    public TargetMakespan(int target) {
+        this.target = target;
+        this.reached = false;
+    }
+
+    @Override
+    public void onNewIncumbent(long iteration, long time, int makespan) {
+        reached = reached || makespan <= target;
+    }
+
+    @Override
+    public boolean isSatisfied(long iteration, long time) {
+        return reached;
+    }
+
+}
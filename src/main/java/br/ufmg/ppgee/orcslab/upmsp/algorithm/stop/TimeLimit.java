@@ -0,0 +1,28 @@
+package br.ufmg.ppgee.orcslab.upmsp.algorithm.stop;
+
+/**
+ * Stop when the elapsed time reaches a limit.
+ */
+public class TimeLimit implements StopCondition {
+
+    private final long limit;
+
+    /**
+     * Constructor.
+     * @param limit The time limit (in milliseconds).
+     */
+    public TimeLimit(long limit) {
+        this.limit = limit;
+    }
+
+    @Override
+    public void onNewIncumbent(long iteration, long time, int makespan) {
+        /* Do nothing. */
+    }
+
+    @Override
+    public boolean isSatisfied(long iteration, long time) {
+        return time >= limit;
+    }
+
+}
@@ -1,9 +1,13 @@
 package br.ufmg.ppgee.orcslab.upmsp.cli;
 
 import br.ufmg.ppgee.orcslab.upmsp.cli.command.AnalyzeCommand;
+import br.ufmg.ppgee.orcslab.upmsp.cli.command.BatchCommand;
 import br.ufmg.ppgee.orcslab.upmsp.cli.command.Command;
 import br.ufmg.ppgee.orcslab.upmsp.cli.command.OptimizeCommand;
+import br.ufmg.ppgee.orcslab.upmsp.cli.command.ServeCommand;
+import br.ufmg.ppgee.orcslab.upmsp.cli.command.StreamCommand;
 import br.ufmg.ppgee.orcslab.upmsp.cli.command.TrackCommand;
+import br.ufmg.ppgee.orcslab.upmsp.cli.command.TuneCommand;
 import com.beust.jcommander.JCommander;
 import com.beust.jcommander.Parameter;
 import com.beust.jcommander.ParameterException;
@@ -31,6 +35,10 @@ public class CommandLineInterface {
         commands.put("optimize", new OptimizeCommand());
         commands.put("track", new TrackCommand());
         commands.put("analyze", new AnalyzeCommand());
+        commands.put("serve", new ServeCommand());
+        commands.put("batch", new BatchCommand());
+        commands.put("stream", new StreamCommand());
+        commands.put("tune", new TuneCommand());
     }
 
     /**
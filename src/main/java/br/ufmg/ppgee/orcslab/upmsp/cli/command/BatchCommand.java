@@ -0,0 +1,322 @@
+package br.ufmg.ppgee.orcslab.upmsp.cli.command;
+
+import br.ufmg.ppgee.orcslab.upmsp.algorithm.Algorithm;
+import br.ufmg.ppgee.orcslab.upmsp.cli.util.Param;
+import br.ufmg.ppgee.orcslab.upmsp.problem.LowerBound;
+import br.ufmg.ppgee.orcslab.upmsp.problem.Problem;
+import br.ufmg.ppgee.orcslab.upmsp.problem.Solution;
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.ParameterException;
+import com.beust.jcommander.Parameters;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Solve many instances in a single run of the program. The tasks (instance, seed and options of
+ * the optimize command) are given by a directory, a glob pattern or a manifest file, and they are
+ * solved in parallel by a {@link ForkJoinPool}. The tasks expected to take longer start first, so
+ * the large instances do not delay the end of the batch.
+ */
+@Parameters(commandDescription = "Solve several instances and save the results in a CSV file.")
+public class BatchCommand extends AbstractCommand {
+
+    @Parameter(names = "--verbose", description = "Show the progress.")
+    public boolean verbose = false;
+
+    @Parameter(names = "--threads", description = "Number of tasks solved in parallel.")
+    public Integer threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
+    @Parameter(names = "--repetitions", description = "Number of times each instance is solved (the seeds are 1, 2, ...).")
+    public Integer repetitions = 1;
+
+    @Parameter(names = "--instances", description = "Path to the directory containing the instance files or a glob pattern (e.g., 'instances/I_50_*.txt').")
+    public String instancesPath = null;
+
+    @Parameter(names = "--manifest", description = "Path to a file in which each line has an instance file, a seed and, optionally, options of the optimize command.")
+    public String manifestPath = null;
+
+    @Parameter(names = "--options", description = "Options of the optimize command used by all tasks (e.g., '--algorithm grasp --time-limit 1000').")
+    public String options = "";
+
+    @Parameter(names = "--output", description = "Path to the file in which the results will be saved.")
+    public String outputPath = "results.csv";
+
+    private long completedEntries;
+    private long totalEntires;
+
+    @Override
+    public void doRun(String name, JCommander cmd) throws Exception {
+
+        // Create the list of tasks
+        List<Task> tasks = new ArrayList<>();
+        if (manifestPath != null) {
+            tasks.addAll(readManifest(Paths.get(manifestPath)));
+        }
+        if (instancesPath != null) {
+            for (Path instance : listInstances(instancesPath)) {
+                for (long seed = 1; seed <= repetitions; ++seed) {
+                    tasks.add(createTask(instance, seed, new String[0]));
+                }
+            }
+        }
+        if (instancesPath == null && manifestPath == null) {
+            throw new ParameterException("Either --instances or --manifest must be used.");
+        }
+
+        // Longest expected tasks first: the time limit is the expected duration, and larger
+        // instances are slower to load and to construct the start solutions
+        tasks.sort(Comparator.comparingLong((Task task) -> task.timeLimit)
+                .thenComparingLong(task -> (long) task.n * task.m)
+                .reversed());
+
+        // Total number of entries to solve
+        totalEntires = tasks.size();
+        completedEntries = 0L;
+
+        // Log
+        if (verbose) {
+            System.out.print(String.format("Progress: %d of %d (%.2f%%)", completedEntries, totalEntires,
+                    100.0 * (completedEntries / (double) totalEntires)));
+        }
+
+        // Run the tasks
+        Path output = Paths.get(outputPath).toAbsolutePath();
+        Files.createDirectories(output.getParent());
+        try (BufferedWriter writer = Files.newBufferedWriter(output)) {
+
+            // Write header of CSV file
+            writer.append("INSTANCE,N,M,SEED,ALGORITHM,TIME.LIMIT.MS,TIME.MS,MAKESPAN,SUM,LOWER.BOUND,ERROR");
+            writer.newLine();
+            writer.flush();
+
+            // Submit the tasks in order (each one uses its own random number generator)
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                List<ForkJoinTask<?>> futures = new ArrayList<>(tasks.size());
+                for (Task task : tasks) {
+                    futures.add(pool.submit(() -> run(task, writer)));
+                }
+
+                // Wait all tasks to finish
+                for (ForkJoinTask<?> future : futures) {
+                    future.join();
+                }
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        if (verbose) {
+            System.out.println();
+        }
+    }
+
+
+    // --------------------------------------------------------------------------------------------
+    // Auxiliary methods
+    // --------------------------------------------------------------------------------------------
+
+    /**
+     * Solve a task and write the result. Errors are written to the output instead of stopping
+     * the batch.
+     * @param task The task.
+     * @param writer Writer of the CSV file.
+     */
+    private void run(Task task, BufferedWriter writer) {
+        String instanceName = task.instance.getFileName().toString().replace(".txt", "");
+        String data;
+
+        try {
+
+            // Invalid task (its error was found when it was created)
+            if (task.error != null) {
+                throw task.error;
+            }
+
+            // Load the instance file and create the algorithm
+            Problem problem = new Problem(task.instance);
+            Algorithm algorithm = task.options.createAlgorithm();
+            Map<String, Object> params = task.options.createParameters(problem);
+
+            // Solve the problem
+            long start = System.nanoTime();
+            Solution solution = algorithm.solve(problem, new Random(task.seed), params, null);
+            solution.update();
+            long time = (System.nanoTime() - start) / 1000000L;
+
+            data = String.format("%s,%d,%d,%d,%s,%d,%d,%d,%d,%d,", instanceName, problem.n, problem.m, task.seed,
+                    task.options.algorithmName, task.timeLimit, time, solution.getMakespan(),
+                    solution.getSumMachinesMakespan(), LowerBound.of(problem));
+
+        } catch (Exception e) {
+            String message = (e instanceof NoSuchFileException ? "File not found: " : "") + e.getMessage();
+            message = message.replace("\"", "'").replaceAll("\\s+", " ");
+            data = String.format("%s,%d,%d,%d,%s,%d,,,,,\"%s\"", instanceName, task.n, task.m, task.seed,
+                    task.options.algorithmName, task.timeLimit, message);
+        }
+
+        // Write data
+        try {
+            synchronized (writer) {
+                writer.write(data);
+                writer.newLine();
+                writer.flush();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+
+        onEntryCompleted();
+    }
+
+    /**
+     * List the instance files in a directory or matching a glob pattern.
+     * @param pattern Path to a directory or glob pattern.
+     * @return The instance files (sorted by name).
+     * @throws IOException If an error occurs while listing the files.
+     */
+    static List<Path> listInstances(String pattern) throws IOException {
+
+        // Instance files matching the glob pattern
+        Path path = Paths.get(pattern.replaceAll("[*?\\[{].*$", ""));
+        if (pattern.matches(".*[*?\\[{].*")) {
+            PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+            Path directory = (Files.isDirectory(path) ? path : path.getParent());
+            if (directory == null) {
+                directory = Paths.get("");
+            }
+            try (Stream<Path> files = Files.walk(directory)) {
+                return files.filter(file -> Files.isRegularFile(file) && matcher.matches(file))
+                        .sorted()
+                        .collect(Collectors.toList());
+            }
+        }
+
+        // All instance files of the directory
+        try (Stream<Path> files = Files.list(path)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".txt"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Read the tasks of a manifest file. Each line has the path to an instance file (relative to
+     * the manifest file), a seed and, optionally, options of the optimize command. Empty lines
+     * and lines starting with '#' are ignored.
+     * @param manifest Path to the manifest file.
+     * @return The tasks.
+     * @throws IOException If an error occurs while reading the files.
+     */
+    private List<Task> readManifest(Path manifest) throws IOException {
+        Path directory = manifest.toAbsolutePath().getParent();
+        List<Task> tasks = new ArrayList<>();
+        for (String line : Files.readAllLines(manifest)) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+
+            String[] tokens = line.split("\\s+");
+            if (tokens.length < 2) {
+                throw new ParameterException("Invalid line in the manifest file: " + line);
+            }
+            Path instance = directory.resolve(tokens[0]);
+            long seed = Long.parseLong(tokens[1]);
+            tasks.add(createTask(instance, seed, Arrays.copyOfRange(tokens, 2, tokens.length)));
+        }
+        return tasks;
+    }
+
+    /**
+     * Create a task, parsing its options as in the optimize command. If the options of the task
+     * are invalid or the size of the instance cannot be read, the error is kept in the task and
+     * written to the output when it runs, so the other tasks of the batch are still solved.
+     * @param instance Path to the instance file.
+     * @param seed Seed of the random number generator.
+     * @param extra Options of this task (in addition to the ones of {@code --options}).
+     * @return The task.
+     */
+    private Task createTask(Path instance, long seed, String[] extra) {
+
+        // Options of all tasks
+        OptimizeCommand optimize = new OptimizeCommand();
+        parse(optimize, options.trim().isEmpty() ? new String[0] : options.trim().split("\\s+"), instance);
+        List<Param> parameters = optimize.parameters;
+
+        try {
+
+            // Options of this task (they override the previous ones, and the algorithm
+            // parameters are added to the previous ones)
+            optimize.parameters = new ArrayList<>();
+            parse(optimize, extra, instance);
+            parameters.addAll(optimize.parameters);
+            optimize.parameters = parameters;
+
+            // Only the size of the instance is read, so the instances are not kept in memory
+            try (Scanner input = new Scanner(instance)) {
+                int n = input.nextInt();
+                int m = input.nextInt();
+                return new Task(instance, seed, optimize, n, m, optimize.getTimeLimit(n, m), null);
+            }
+
+        } catch (ParameterException | IOException | NoSuchElementException e) {
+            Exception error = (e instanceof NoSuchElementException
+                    ? new IOException("Invalid instance file: " + instance, e) : e);
+            return new Task(instance, seed, optimize, 0, 0, optimize.getTimeLimit(0, 0), error);
+        }
+    }
+
+    static void parse(OptimizeCommand optimize, String[] args, Path instance) {
+        List<String> list = new ArrayList<>(Arrays.asList(args));
+        list.add("--instance");
+        list.add(instance.toString());
+        JCommander.newBuilder()
+                .addObject(optimize)
+                .build()
+                .parse(list.toArray(new String[0]));
+    }
+
+    private synchronized void onEntryCompleted() {
+        ++completedEntries;
+        if (verbose) {
+            System.out.print(String.format("\rProgress: %d of %d (%.2f%%)", completedEntries, totalEntires,
+                    100.0 * (completedEntries / (double) totalEntires)));
+        }
+    }
+
+
+    // --------------------------------------------------------------------------------------------
+    // Auxiliary classes
+    // --------------------------------------------------------------------------------------------
+
+    private static class Task {
+
+        final Path instance;
+        final long seed;
+        final OptimizeCommand options;
+        final int n;
+        final int m;
+        final long timeLimit;
+        final Exception error;
+
+        Task(Path instance, long seed, OptimizeCommand options, int n, int m, long timeLimit, Exception error) {
+            this.instance = instance;
+            this.seed = seed;
+            this.options = options;
+            this.n = n;
+            this.m = m;
+            this.timeLimit = timeLimit;
+            this.error = error;
+        }
+    }
+
+}
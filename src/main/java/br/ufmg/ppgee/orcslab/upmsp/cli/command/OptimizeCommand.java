@@ -2,15 +2,33 @@ package br.ufmg.ppgee.orcslab.upmsp.cli.command;
 
 import br.ufmg.ppgee.orcslab.upmsp.algorithm.Algorithm;
 import br.ufmg.ppgee.orcslab.upmsp.algorithm.Callback;
+import br.ufmg.ppgee.orcslab.upmsp.algorithm.Checkpoint;
+import br.ufmg.ppgee.orcslab.upmsp.algorithm.Decomposition;
+import br.ufmg.ppgee.orcslab.upmsp.algorithm.GraspHeuristic;
+import br.ufmg.ppgee.orcslab.upmsp.algorithm.GreedyHeuristic;
+import br.ufmg.ppgee.orcslab.upmsp.algorithm.IteratedLocalSearch;
+import br.ufmg.ppgee.orcslab.upmsp.algorithm.LargeNeighborhoodSearch;
+import br.ufmg.ppgee.orcslab.upmsp.algorithm.LateAcceptanceHillClimbing;
+import br.ufmg.ppgee.orcslab.upmsp.algorithm.MemeticAlgorithm;
+import br.ufmg.ppgee.orcslab.upmsp.algorithm.NeighborhoodUsage;
+import br.ufmg.ppgee.orcslab.upmsp.algorithm.Portfolio;
 import br.ufmg.ppgee.orcslab.upmsp.algorithm.SimulatedAnnealing;
+import br.ufmg.ppgee.orcslab.upmsp.algorithm.TabuSearch;
+import br.ufmg.ppgee.orcslab.upmsp.cli.util.NoSplitter;
 import br.ufmg.ppgee.orcslab.upmsp.cli.util.Param;
 import br.ufmg.ppgee.orcslab.upmsp.cli.util.ParamConverter;
+import br.ufmg.ppgee.orcslab.upmsp.problem.LowerBound;
 import br.ufmg.ppgee.orcslab.upmsp.problem.Problem;
 import br.ufmg.ppgee.orcslab.upmsp.problem.Solution;
+import br.ufmg.ppgee.orcslab.upmsp.sequencing.SequenceCache;
 import com.beust.jcommander.JCommander;
 import com.beust.jcommander.Parameter;
+import com.beust.jcommander.ParameterException;
 import com.beust.jcommander.Parameters;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
 
@@ -29,36 +47,60 @@ public class OptimizeCommand extends AbstractCommand {
     @Parameter(names = "--time-limit", description = "Total time for running the algorithm (in milliseconds).")
     public Long timeLimit = null;
 
+    @Parameter(names = "--gap", description = "Stop when the makespan is within this relative gap from the lower bound (e.g., 0.01 for 1%).")
+    public Double gap = null;
+
+    @Parameter(names = "--target", description = "Stop when the makespan is less than or equal to this value.")
+    public Integer target = null;
+
+    @Parameter(names = "--stagnation-iterations", description = "Stop after this number of iterations without improvement.")
+    public Long stagnationIterations = null;
+
+    @Parameter(names = "--stagnation-time", description = "Stop after this time without improvement (in milliseconds).")
+    public Long stagnationTime = null;
+
+    @Parameter(names = "--min-improvement-rate", description = "Stop when the relative improvement within the improvement window is less than this value (e.g., 0.01 for 1%).")
+    public Double minImprovementRate = null;
+
+    @Parameter(names = "--improvement-window", description = "Size of the window used with --min-improvement-rate (in milliseconds).")
+    public Long improvementWindow = null;
+
+    @Parameter(names = "--initial-solution", description = "Path to a solution file (one line per machine with its jobs) used as start solution.")
+    public String initialSolutionPath = null;
+
+    @Parameter(names = "--checkpoint", description = "Path to the file in which the state of the algorithm is periodically saved.")
+    public String checkpointPath = null;
+
+    @Parameter(names = "--checkpoint-interval", description = "Time between checkpoints (in milliseconds).")
+    public Long checkpointInterval = null;
+
+    @Parameter(names = "--resume", description = "Path to a checkpoint file from which the optimization is resumed.")
+    public String resumePath = null;
+
     @Parameter(names = "--instance", description = "Path to the instance file.", required = true)
     public String instancePath = null;
 
     @Parameter(names = "--algorithm", description = "Algorithm used to solve the problem.")
     public String algorithmName = "simulated-annealing";
 
-    @Parameter(names = "--param", description = "Algorithm parameters.", converter = ParamConverter.class)
+    @Parameter(names = "--param", description = "Algorithm parameters.", converter = ParamConverter.class, splitter = NoSplitter.class)
     public List<Param> parameters = new ArrayList<>();
 
+    @Parameter(names = "--param-file", description = "Path to a file with algorithm parameters (one NAME=VALUE per line), e.g., written by the tune command.")
+    public String paramFilePath = null;
+
+    @Parameter(names = "--sequence-cache", description = "Memory (in megabytes) of the cache of the sequences of the machines (0 disables the cache).")
+    public Integer sequenceCacheMemory = 16;
+
     @Override
     public void doRun(String name, JCommander cmd) throws Exception {
 
         // Load the instance file
         Problem problem = new Problem(Paths.get(instancePath));
 
-        // Algorithm parameters
-        Map<String, Object> params = new HashMap<>();
-
-        // Initialize common algorithm parameters
-        params.put("verbose", verbose);
-        params.put("time-limit", timeLimit == null ? (long) problem.n * (problem.m / 2) * 50 : timeLimit);
-
-        // Instantiate the algorithm and its specific parameters
-        Algorithm algorithm = null;
-        if ("simulated-annealing".equalsIgnoreCase(algorithmName)) {
-            algorithm = new SimulatedAnnealing();
-            proccessSAParameters(params);
-        } else {
-            throw new RuntimeException("Algorithm not found.");
-        }
+        // Instantiate the algorithm and its parameters
+        Algorithm algorithm = createAlgorithm();
+        Map<String, Object> params = createParameters(problem);
 
         // Initialize the random number generator
         Random random = (seed == null ? new Random() : new Random(seed));
@@ -71,7 +113,8 @@ public class OptimizeCommand extends AbstractCommand {
         }
 
         // Solve the problem
-        Solution solution = algorithm.solve(problem, random, params, new CustomCallback());
+        CustomCallback callback = new CustomCallback();
+        Solution solution = algorithm.solve(problem, random, params, callback);
         solution.update();
 
         // Print log footer
@@ -79,8 +122,11 @@ public class OptimizeCommand extends AbstractCommand {
             System.out.println("-------------------------------------------------------------");
             System.out.println("Makespan (max): " + solution.getMakespan());
             System.out.println("Makespan (sum): " + solution.getSumMachinesMakespan());
+            System.out.println("Lower bound:    " + LowerBound.of(problem));
             System.out.println("-------------------------------------------------------------");
             System.out.println();
+            callback.printUsage();
+            printCacheUsage((SequenceCache) params.get("sequence-cache"));
         }
 
         // Print summary
@@ -100,9 +146,249 @@ public class OptimizeCommand extends AbstractCommand {
     // Auxiliary methods
     // --------------------------------------------------------------------------------------------
 
-    private void proccessSAParameters(Map<String, Object> output) {
-        List<String> disabled = new ArrayList<>();
-        output.put("disabled-neighborhoods", disabled);
+    /**
+     * Instantiate the algorithm selected by the {@code --algorithm} option.
+     * @return The algorithm.
+     */
+    public Algorithm createAlgorithm() {
+        return createAlgorithm(algorithmName);
+    }
+
+    /**
+     * Instantiate an algorithm from its name.
+     * @param algorithmName Name of the algorithm.
+     * @return The algorithm.
+     */
+    private static Algorithm createAlgorithm(String algorithmName) {
+        if ("simulated-annealing".equalsIgnoreCase(algorithmName)) {
+            return new SimulatedAnnealing();
+        } else if ("iterated-local-search".equalsIgnoreCase(algorithmName)) {
+            return new IteratedLocalSearch();
+        } else if ("greedy".equalsIgnoreCase(algorithmName)) {
+            return new GreedyHeuristic();
+        } else if ("grasp".equalsIgnoreCase(algorithmName)) {
+            return new GraspHeuristic();
+        } else if ("decomposition".equalsIgnoreCase(algorithmName)) {
+            return new Decomposition();
+        } else if ("tabu-search".equalsIgnoreCase(algorithmName)) {
+            return new TabuSearch();
+        } else if ("late-acceptance".equalsIgnoreCase(algorithmName)) {
+            return new LateAcceptanceHillClimbing();
+        } else if ("large-neighborhood-search".equalsIgnoreCase(algorithmName)) {
+            return new LargeNeighborhoodSearch();
+        } else if ("memetic-algorithm".equalsIgnoreCase(algorithmName)) {
+            return new MemeticAlgorithm();
+        } else if ("portfolio".equalsIgnoreCase(algorithmName)) {
+            return new Portfolio();
+        } else {
+            throw new ParameterException("Algorithm not found.");
+        }
+    }
+
+    /**
+     * Return the time limit set by the {@code --time-limit} option or, if it is not set, the
+     * default time limit for an instance of the given size.
+     * @param n Number of jobs.
+     * @param m Number of machines.
+     * @return The time limit (in milliseconds).
+     */
+    public long getTimeLimit(int n, int m) {
+        return timeLimit == null ? (long) n * (m / 2) * 50 : timeLimit;
+    }
+
+    /**
+     * Create the parameters of the algorithm from the options of this command.
+     * @param problem The problem instance.
+     * @return The algorithm parameters.
+     * @throws IOException If an error occurs while reading the initial solution or the checkpoint.
+     */
+    public Map<String, Object> createParameters(Problem problem) throws IOException {
+
+        // Algorithm parameters
+        Map<String, Object> params = new HashMap<>();
+
+        // Initialize common algorithm parameters
+        params.put("verbose", verbose);
+        params.put("time-limit", getTimeLimit(problem.n, problem.m));
+        if (gap != null) {
+            params.put("gap", gap);
+        }
+
+        // Optional stop conditions
+        if (target != null) {
+            params.put("target", target);
+        }
+        if (stagnationIterations != null) {
+            params.put("stagnation-iterations", stagnationIterations);
+        }
+        if (stagnationTime != null) {
+            params.put("stagnation-time", stagnationTime);
+        }
+        if (minImprovementRate != null) {
+            params.put("min-improvement-rate", minImprovementRate);
+        }
+        if (improvementWindow != null) {
+            params.put("improvement-window", improvementWindow);
+        }
+
+        // Start solution (warm start)
+        if (initialSolutionPath != null) {
+            Solution initialSolution = new Solution(problem, Paths.get(initialSolutionPath));
+            StringBuilder builder = new StringBuilder();
+            if (!initialSolution.isFeasible(builder)) {
+                throw new ParameterException("Invalid initial solution: " + builder);
+            }
+            params.put("initial-solution", initialSolution);
+        }
+
+        // Checkpoints (only the simulated annealing saves and resumes its state)
+        if ((checkpointPath != null || checkpointInterval != null || resumePath != null)
+                && !"simulated-annealing".equalsIgnoreCase(algorithmName)) {
+            throw new ParameterException("The options --checkpoint, --checkpoint-interval and --resume are only available for the algorithm simulated-annealing.");
+        }
+        if (checkpointPath != null) {
+            params.put("checkpoint-file", checkpointPath);
+        }
+        if (checkpointInterval != null) {
+            params.put("checkpoint-interval", checkpointInterval);
+        }
+        if (resumePath != null) {
+            params.put("resume", Checkpoint.read(Paths.get(resumePath), problem));
+        }
+
+        // Cache of the sequences of the machines (shared by the members of a portfolio)
+        if (sequenceCacheMemory != null && sequenceCacheMemory > 0) {
+            params.put("sequence-cache", new SequenceCache(problem, sequenceCacheMemory * 1024L * 1024L));
+        }
+
+        // Algorithm specific parameters (the ones of --param override the ones of the file)
+        List<Param> parameters = new ArrayList<>();
+        if (paramFilePath != null) {
+            parameters.addAll(readParameters(Paths.get(paramFilePath)));
+        }
+        parameters.addAll(this.parameters);
+        proccessAlgorithmParameters(algorithmName, parameters, params);
+
+        return params;
+    }
+
+    /**
+     * Print the number of hits and misses of the cache of sequences, if it was used.
+     * @param cache The cache of sequences, or null.
+     */
+    private static void printCacheUsage(SequenceCache cache) {
+        if (cache == null || cache.getHits() + cache.getMisses() == 0L) {
+            return;
+        }
+        System.out.println(String.format("Sequence cache: %d hits, %d misses (%.2f%% hits), %d sequences",
+                cache.getHits(), cache.getMisses(),
+                100.0 * cache.getHits() / (cache.getHits() + cache.getMisses()), cache.size()));
+        System.out.println();
+    }
+
+    /**
+     * Read the algorithm parameters of a file. Each line has a parameter in the format
+     * {@code NAME=VALUE}, as in the {@code --param} option. Empty lines and lines starting with
+     * '#' are ignored.
+     * @param path Path to the file.
+     * @return The parameters.
+     * @throws IOException If an error occurs while reading the file.
+     */
+    public static List<Param> readParameters(Path path) throws IOException {
+        ParamConverter converter = new ParamConverter();
+        List<Param> parameters = new ArrayList<>();
+        for (String line : Files.readAllLines(path)) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            if (!line.contains("=")) {
+                throw new ParameterException("Invalid line in the parameter file: " + line);
+            }
+            parameters.add(converter.convert(line));
+        }
+        return parameters;
+    }
+
+    /**
+     * Process the parameters specific to an algorithm.
+     * @param algorithmName Name of the algorithm.
+     * @param parameters Parameters given by the user.
+     * @param output Map in which the algorithm parameters are stored.
+     */
+    private void proccessAlgorithmParameters(String algorithmName, List<Param> parameters, Map<String, Object> output) {
+        if ("simulated-annealing".equalsIgnoreCase(algorithmName)) {
+            proccessSAParameters(parameters, output);
+        } else if ("iterated-local-search".equalsIgnoreCase(algorithmName)) {
+            proccessILSParameters(parameters, output);
+        } else if ("grasp".equalsIgnoreCase(algorithmName)) {
+            proccessGRASPParameters(parameters, output);
+        } else if ("decomposition".equalsIgnoreCase(algorithmName)) {
+            proccessDecompositionParameters(parameters, output);
+        } else if ("tabu-search".equalsIgnoreCase(algorithmName)) {
+            proccessTSParameters(parameters, output);
+        } else if ("late-acceptance".equalsIgnoreCase(algorithmName)) {
+            proccessLAHCParameters(parameters, output);
+        } else if ("large-neighborhood-search".equalsIgnoreCase(algorithmName)) {
+            proccessLNSParameters(parameters, output);
+        } else if ("memetic-algorithm".equalsIgnoreCase(algorithmName)) {
+            proccessMAParameters(parameters, output);
+        } else if ("portfolio".equalsIgnoreCase(algorithmName)) {
+            proccessPortfolioParameters(parameters, output);
+        }
+    }
+
+    /**
+     * Create the members of the portfolio. Each parameter {@code member} has the name of an
+     * algorithm followed by its parameters, separated by ':' (e.g.,
+     * {@code simulated-annealing:disable=swap:cooling-rate=0.9}). The other parameters of the
+     * portfolio are given to all members, and the ones of the member override them. By default,
+     * the simulated annealing, the late acceptance hill climbing, the tabu search and the
+     * iterated local search are used.
+     */
+    private void proccessPortfolioParameters(List<Param> parameters, Map<String, Object> output) {
+        List<Param> common = new ArrayList<>();
+        List<String> specs = new ArrayList<>();
+        for (Param parameter : parameters) {
+            if ("member".equals(parameter.name)) {
+                specs.add(parameter.value);
+            } else {
+                common.add(parameter);
+            }
+        }
+        if (specs.isEmpty()) {
+            specs.addAll(Arrays.asList("simulated-annealing", "late-acceptance", "tabu-search", "iterated-local-search"));
+        }
+
+        // Each member gets the common parameters of the run (stop conditions, start solution,
+        // etc.), but not the checkpoints
+        ParamConverter converter = new ParamConverter();
+        List<Algorithm> members = new ArrayList<>();
+        List<Map<String, Object>> memberParameters = new ArrayList<>();
+        for (String spec : specs) {
+            String[] tokens = spec.split(":");
+            if ("portfolio".equalsIgnoreCase(tokens[0])) {
+                throw new ParameterException("A portfolio cannot be a member of a portfolio.");
+            }
+            List<Param> memberParams = new ArrayList<>(common);
+            for (int idx = 1; idx < tokens.length; ++idx) {
+                memberParams.add(converter.convert(tokens[idx]));
+            }
+
+            Map<String, Object> params = new HashMap<>(output);
+            params.remove("checkpoint-file");
+            params.remove("resume");
+            proccessAlgorithmParameters(tokens[0], memberParams, params);
+            members.add(createAlgorithm(tokens[0]));
+            memberParameters.add(params);
+        }
+
+        output.put("members", members);
+        output.put("member-parameters", memberParameters);
+    }
+
+    private void proccessSAParameters(List<Param> parameters, Map<String, Object> output) {
+        proccessLocalSearchParameters(parameters, output);
 
         for (Param parameter : parameters) {
             switch (parameter.name) {
@@ -116,16 +402,297 @@ public class OptimizeCommand extends AbstractCommand {
                     break;
 
                 case "initial-temperature":
-                    output.put("initial-temperature", Long.parseLong(parameter.value));
+                    if ("auto".equalsIgnoreCase(parameter.value)) {
+                        output.put("temperature-calibration", true);
+                    } else {
+                        output.put("initial-temperature", Double.parseDouble(parameter.value));
+                        output.put("temperature-calibration", false);
+                    }
+                    break;
+
+                case "calibration-samples":
+                    output.put("calibration-samples", Integer.parseInt(parameter.value));
+                    break;
+
+                case "calibration-time":
+                    output.put("calibration-time", Double.parseDouble(parameter.value));
+                    break;
+
+                case "initial-acceptance":
+                    output.put("initial-acceptance", Double.parseDouble(parameter.value));
+                    break;
+
+                case "final-acceptance":
+                    output.put("final-acceptance", Double.parseDouble(parameter.value));
                     break;
 
                 case "cooling-rate":
-                    output.put("cooling-rate", Long.parseLong(parameter.value));
+                    output.put("cooling-rate", Double.parseDouble(parameter.value));
+                    break;
+
+                case "adaptive-selection":
+                    output.put("adaptive-selection", Boolean.parseBoolean(parameter.value));
+                    break;
+
+                case "adaptation-decay":
+                    output.put("adaptation-decay", Double.parseDouble(parameter.value));
+                    break;
+
+                case "min-probability":
+                    output.put("min-probability", Double.parseDouble(parameter.value));
+                    break;
+
+                case "elite-size":
+                    output.put("elite-size", Integer.parseInt(parameter.value));
+                    break;
+
+                case "elite-distance":
+                    output.put("elite-distance", Integer.parseInt(parameter.value));
+                    break;
+
+                case "relinking-interval":
+                    output.put("relinking-interval", Long.parseLong(parameter.value));
+                    break;
+            }
+        }
+    }
+
+    private void proccessILSParameters(List<Param> parameters, Map<String, Object> output) {
+        proccessLocalSearchParameters(parameters, output);
+
+        for (Param parameter : parameters) {
+            switch (parameter.name) {
+
+                case "iterations-limit":
+                    output.put("iterations-limit", Long.parseLong(parameter.value));
+                    break;
+
+                case "perturbation-strength":
+                    output.put("perturbation-strength", Integer.parseInt(parameter.value));
+                    break;
+            }
+        }
+    }
+
+    private void proccessTSParameters(List<Param> parameters, Map<String, Object> output) {
+        proccessLocalSearchParameters(parameters, output);
+
+        for (Param parameter : parameters) {
+            switch (parameter.name) {
+
+                case "iterations-limit":
+                    output.put("iterations-limit", Long.parseLong(parameter.value));
+                    break;
+
+                case "candidates":
+                    output.put("candidates", Integer.parseInt(parameter.value));
+                    break;
+
+                case "tabu-tenure":
+                    output.put("tabu-tenure", Integer.parseInt(parameter.value));
+                    break;
+
+                case "table-size":
+                    output.put("table-size", Integer.parseInt(parameter.value));
+                    break;
+            }
+        }
+    }
+
+    private void proccessLAHCParameters(List<Param> parameters, Map<String, Object> output) {
+        proccessLocalSearchParameters(parameters, output);
+
+        for (Param parameter : parameters) {
+            switch (parameter.name) {
+
+                case "iterations-limit":
+                    output.put("iterations-limit", Long.parseLong(parameter.value));
+                    break;
+
+                case "history-length":
+                    output.put("history-length", Integer.parseInt(parameter.value));
+                    break;
+            }
+        }
+    }
+
+    private void proccessLNSParameters(List<Param> parameters, Map<String, Object> output) {
+        proccessLocalSearchParameters(parameters, output);
+
+        List<String> destroy = new ArrayList<>();
+        List<String> repair = new ArrayList<>();
+
+        for (Param parameter : parameters) {
+            switch (parameter.name) {
+
+                case "iterations-limit":
+                    output.put("iterations-limit", Long.parseLong(parameter.value));
+                    break;
+
+                case "removal-rate":
+                    output.put("removal-rate", Double.parseDouble(parameter.value));
+                    break;
+
+                case "max-removal":
+                    output.put("max-removal", Integer.parseInt(parameter.value));
+                    break;
+
+                case "repairs":
+                    output.put("repairs", Integer.parseInt(parameter.value));
+                    break;
+
+                case "regret":
+                    output.put("regret", Integer.parseInt(parameter.value));
+                    break;
+
+                case "local-search":
+                    output.put("local-search", Boolean.parseBoolean(parameter.value));
+                    break;
+
+                case "destroy":
+                    destroy.add(parameter.value);
+                    output.put("destroy", destroy);
+                    break;
+
+                case "repair":
+                    repair.add(parameter.value);
+                    output.put("repair", repair);
                     break;
+            }
+        }
+    }
+
+    private void proccessMAParameters(List<Param> parameters, Map<String, Object> output) {
+        proccessLocalSearchParameters(parameters, output);
+
+        for (Param parameter : parameters) {
+            switch (parameter.name) {
+
+                case "iterations-limit":
+                    output.put("iterations-limit", Long.parseLong(parameter.value));
+                    break;
+
+                case "population-size":
+                    output.put("population-size", Integer.parseInt(parameter.value));
+                    break;
+
+                case "offspring":
+                    output.put("offspring", Integer.parseInt(parameter.value));
+                    break;
+
+                case "mutation-rate":
+                    output.put("mutation-rate", Double.parseDouble(parameter.value));
+                    break;
+
+                case "local-search-moves":
+                    output.put("local-search-moves", Long.parseLong(parameter.value));
+                    break;
+
+                case "local-search":
+                    output.put("local-search", Boolean.parseBoolean(parameter.value));
+                    break;
+            }
+        }
+    }
+
+    private void proccessLocalSearchParameters(List<Param> parameters, Map<String, Object> output) {
+        List<String> disabled = new ArrayList<>();
+        output.put("disabled-neighborhoods", disabled);
+
+        List<String> order = new ArrayList<>();
+
+        for (Param parameter : parameters) {
+            switch (parameter.name) {
 
                 case "disable":
                     disabled.add(parameter.value);
                     break;
+
+                case "neighborhood":
+                    order.add(parameter.value);
+                    output.put("neighborhood-order", order);
+                    break;
+
+                case "initial-heuristic":
+                    output.put("initial-heuristic", parameter.value);
+                    break;
+
+                case "grasp-alpha":
+                    output.put("grasp-alpha", Double.parseDouble(parameter.value));
+                    break;
+
+                case "grasp-iterations":
+                    output.put("grasp-iterations", Long.parseLong(parameter.value));
+                    break;
+
+                case "threads":
+                    output.put("threads", Integer.parseInt(parameter.value));
+                    break;
+
+                case "sequencing-interval":
+                    output.put("sequencing-interval", Long.parseLong(parameter.value));
+                    break;
+
+                case "post-sequencing":
+                    output.put("post-sequencing", Boolean.parseBoolean(parameter.value));
+                    break;
+
+                case "exact-sequencing-limit":
+                    output.put("exact-sequencing-limit", Integer.parseInt(parameter.value));
+                    break;
+
+                case "initial-sequencing":
+                    output.put("initial-sequencing", Boolean.parseBoolean(parameter.value));
+                    break;
+
+                case "sequencer":
+                    output.put("sequencer", parameter.value);
+                    break;
+
+                case "move-cache-size":
+                    output.put("move-cache-size", Integer.parseInt(parameter.value));
+                    break;
+            }
+        }
+    }
+
+    private void proccessGRASPParameters(List<Param> parameters, Map<String, Object> output) {
+        for (Param parameter : parameters) {
+            switch (parameter.name) {
+
+                case "iterations-limit":
+                    output.put("iterations-limit", Long.parseLong(parameter.value));
+                    break;
+
+                case "alpha":
+                    output.put("alpha", Double.parseDouble(parameter.value));
+                    break;
+
+                case "threads":
+                    output.put("threads", Integer.parseInt(parameter.value));
+                    break;
+            }
+        }
+    }
+
+
+    private void proccessDecompositionParameters(List<Param> parameters, Map<String, Object> output) {
+        proccessSAParameters(parameters, output);
+
+        for (Param parameter : parameters) {
+            switch (parameter.name) {
+
+                case "groups":
+                    output.put("groups", Integer.parseInt(parameter.value));
+                    break;
+
+                case "rounds":
+                    output.put("rounds", Integer.parseInt(parameter.value));
+                    break;
+
+                case "decomposition-time":
+                    output.put("decomposition-time", Double.parseDouble(parameter.value));
+                    break;
             }
         }
     }
@@ -137,6 +704,8 @@ public class OptimizeCommand extends AbstractCommand {
 
     private class CustomCallback implements Callback {
 
+        private List<NeighborhoodUsage> usage = null;
+
         @Override
         public void onNewIncumbent(Solution solution, long iteration, long time) {
             if (verbose) {
@@ -145,6 +714,31 @@ public class OptimizeCommand extends AbstractCommand {
                         solution.getMakespan(), solution.getSumMachinesMakespan(), time / 1000000000.0));
             }
         }
+
+        @Override
+        public synchronized void onNeighborhoodUsage(List<NeighborhoodUsage> usage, long iteration, long time) {
+            this.usage = usage;
+        }
+
+        /**
+         * Print the last statistics of the neighborhoods reported by the algorithm, if any.
+         */
+        public synchronized void printUsage() {
+            if (usage == null) {
+                return;
+            }
+            System.out.println("--------------------------------------------------------------------------------------------");
+            System.out.println("| Neighborhood |   Move |        Calls | Accepted (%) | Improving (%) | Improv./ms | Prob. |");
+            System.out.println("--------------------------------------------------------------------------------------------");
+            for (NeighborhoodUsage entry : usage) {
+                System.out.println(String.format("| %12s | %6s | %12d | %12.2f | %13.2f | %10.3f | %5.3f |",
+                        entry.neighborhood, entry.intensification ? "best" : "any", entry.calls,
+                        100.0 * entry.accepted / Math.max(1L, entry.calls),
+                        100.0 * entry.improving / Math.max(1L, entry.calls),
+                        entry.improvement / Math.max(1e-9, entry.time / 1000000.0), entry.probability));
+            }
+            System.out.println("--------------------------------------------------------------------------------------------");
+        }
     }
 
 }
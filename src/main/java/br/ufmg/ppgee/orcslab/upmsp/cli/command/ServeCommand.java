@@ -0,0 +1,375 @@
+package br.ufmg.ppgee.orcslab.upmsp.cli.command;
+
+import br.ufmg.ppgee.orcslab.upmsp.algorithm.Algorithm;
+import br.ufmg.ppgee.orcslab.upmsp.algorithm.AsyncSolver;
+import br.ufmg.ppgee.orcslab.upmsp.algorithm.Callback;
+import br.ufmg.ppgee.orcslab.upmsp.algorithm.SolverHandle;
+import br.ufmg.ppgee.orcslab.upmsp.problem.Problem;
+import br.ufmg.ppgee.orcslab.upmsp.problem.Solution;
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.Parameters;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keep the solver running (so the JVM is started and the code is compiled only once) and accept
+ * optimization requests, one per line, from the standard input or from a TCP socket bound to the
+ * loopback interface. Each request has the form
+ * <pre>
+ *     &lt;id&gt; [options of the optimize command] [--data &lt;instance data&gt;]
+ * </pre>
+ * where the instance is given either by {@code --instance} or inline, after {@code --data}, in the
+ * same format of the instance files. The options that read or write other files
+ * ({@code --initial-solution}, {@code --param-file}, {@code --checkpoint},
+ * {@code --checkpoint-interval} and {@code --resume}) are rejected. The lines {@code cancel <id>}
+ * and {@code shutdown} stop a request and the server, respectively. The responses are written as
+ * lines starting with the id of the request:
+ * <pre>
+ *     &lt;id&gt; incumbent &lt;iteration&gt; &lt;C_max&gt; &lt;C_sum&gt; &lt;time (s)&gt;   (only with --verbose)
+ *     &lt;id&gt; done &lt;C_max&gt; &lt;C_sum&gt; &lt;time (s)&gt;
+ *     &lt;id&gt; solution &lt;jobs of machine 0&gt; | &lt;jobs of machine 1&gt; | ...   (only with --print-solution)
+ *     &lt;id&gt; error &lt;message&gt;
+ * </pre>
+ */
+@Parameters(commandDescription = "Keep the solver running and accept optimization requests from the standard input or a local socket.")
+public class ServeCommand extends AbstractCommand {
+
+    @Parameter(names = "--port", description = "Listen to this TCP port (on the loopback interface) instead of reading the standard input.")
+    public Integer port = null;
+
+    @Parameter(names = "--threads", description = "Number of requests solved in parallel.")
+    public Integer threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
+    @Parameter(names = "--queue-size", description = "Maximum number of requests waiting for a thread (further requests are rejected).")
+    public Integer queueSize = 100;
+
+    @Parameter(names = "--cache-size", description = "Number of instances kept in memory.")
+    public Integer cacheSize = 16;
+
+    private AsyncSolver solver;
+    private Semaphore slots;
+    private Map<String, Problem> cache;
+    private ConcurrentMap<String, SolverHandle> running;
+    private ServerSocket server;
+    private volatile boolean shutdown;
+
+    @Override
+    public void doRun(String name, JCommander cmd) throws Exception {
+
+        // Initialize the state shared by all connections
+        solver = new AsyncSolver(threads);
+        slots = new Semaphore(threads + queueSize);
+        running = new ConcurrentHashMap<>();
+        cache = new LinkedHashMap<String, Problem>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Problem> eldest) {
+                return size() > cacheSize;
+            }
+        };
+        shutdown = false;
+
+        try {
+            if (port == null) {
+
+                // Read the requests from the standard input
+                serve(System.in, System.out);
+
+            } else {
+
+                // Accept connections until the server is shut down
+                try (ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+                    this.server = server;
+                    System.out.println("Listening on " + server.getLocalSocketAddress());
+
+                    AtomicInteger counter = new AtomicInteger(0);
+                    while (!shutdown) {
+                        Socket socket;
+                        try {
+                            socket = server.accept();
+                        } catch (SocketException e) {
+                            if (shutdown) {
+                                break;
+                            }
+                            throw e;
+                        }
+
+                        Thread thread = new Thread(() -> {
+                            try (Socket connection = socket) {
+                                serve(connection.getInputStream(), connection.getOutputStream());
+                            } catch (IOException e) {
+                                System.err.println("ERROR: " + e.getMessage());
+                            }
+                        }, "connection-" + counter.incrementAndGet());
+                        thread.setDaemon(true);
+                        thread.start();
+                    }
+                }
+            }
+        } finally {
+
+            // Wait for the pending requests (they are cancelled on shutdown)
+            solver.close();
+        }
+    }
+
+
+    // --------------------------------------------------------------------------------------------
+    // Auxiliary methods
+    // --------------------------------------------------------------------------------------------
+
+    /**
+     * Read the requests from an input stream and write the responses to an output stream. The
+     * method returns when the end of the input is reached and the requests read from it are
+     * finished.
+     * @param in The input stream.
+     * @param out The output stream.
+     * @throws IOException If an error occurs while reading the requests.
+     */
+    private void serve(InputStream in, OutputStream out) throws IOException {
+        Output output = new Output(out);
+        Set<CompletableFuture<?>> pending = ConcurrentHashMap.newKeySet();
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        while (!shutdown && (line = reader.readLine()) != null) {
+            line = line.trim();
+            if (!line.isEmpty() && !line.startsWith("#")) {
+                handle(line, output, pending);
+            }
+        }
+
+        // Wait for the requests of this input, so their responses are not lost
+        for (CompletableFuture<?> future : pending) {
+            try {
+                future.join();
+            } catch (Exception e) {
+                // Already reported to the client
+            }
+        }
+    }
+
+    /**
+     * Handle a line of the protocol.
+     * @param line The line.
+     * @param output Output of the responses.
+     * @param pending Set of requests of the connection that are not finished yet.
+     */
+    private void handle(String line, Output output, Set<CompletableFuture<?>> pending) {
+        String[] tokens = line.split("\\s+");
+        String id = tokens[0];
+
+        // Control commands
+        if (tokens.length == 1 && "shutdown".equals(id)) {
+            shutdown();
+            return;
+        }
+        if (tokens.length == 2 && "cancel".equals(id)) {
+            SolverHandle handle = running.get(tokens[1]);
+            if (handle == null) {
+                output.println(tokens[1] + " error Request not found.");
+            } else {
+                handle.cancel();
+            }
+            return;
+        }
+
+        // Solve request
+        long start = System.nanoTime();
+        boolean acquired = false;
+        SolverHandle handle = null;
+        try {
+
+            // Separate the options from the inline instance data
+            int data = Arrays.asList(tokens).indexOf("--data");
+            List<String> args = new ArrayList<>(Arrays.asList(tokens).subList(1, data < 0 ? tokens.length : data));
+            if (data >= 0 && !args.contains("--instance")) {
+                args.add("--instance");
+                args.add("<inline>");
+            }
+
+            // Parse the options as in the optimize command
+            OptimizeCommand request = new OptimizeCommand();
+            JCommander.newBuilder()
+                    .addObject(request)
+                    .build()
+                    .parse(args.toArray(new String[0]));
+
+            // The clients may not read or write other files of the server
+            if (request.initialSolutionPath != null || request.paramFilePath != null || request.checkpointPath != null
+                    || request.checkpointInterval != null || request.resumePath != null) {
+                throw new IllegalStateException("The options --initial-solution, --param-file, --checkpoint, "
+                        + "--checkpoint-interval and --resume are not available in requests.");
+            }
+
+            // Load the instance and create the algorithm
+            Problem problem;
+            if (data >= 0) {
+                String instance = String.join(" ", Arrays.asList(tokens).subList(data + 1, tokens.length));
+                problem = new Problem(new Scanner(instance));
+            } else {
+                problem = loadProblem(Paths.get(request.instancePath));
+            }
+            Algorithm algorithm = request.createAlgorithm();
+            Map<String, Object> params = request.createParameters(problem);
+            Random random = (request.seed == null ? new Random() : new Random(request.seed));
+
+            // Report the progress if required
+            Callback callback = null;
+            if (request.verbose) {
+                callback = (solution, iteration, time) -> {
+                    solution.update();
+                    output.println(String.format("%s incumbent %d %d %d %.3f", id, iteration,
+                            solution.getMakespan(), solution.getSumMachinesMakespan(), time / 1000000000.0));
+                };
+            }
+
+            // Reject the request if the queue is full or the id is in use
+            if (!slots.tryAcquire()) {
+                throw new IllegalStateException("Too many requests.");
+            }
+            acquired = true;
+            handle = new SolverHandle(callback);
+            if (running.putIfAbsent(id, handle) != null) {
+                handle = null;
+                throw new IllegalStateException("There is already a request with this id.");
+            }
+
+            // Run the algorithm and write the result when it finishes
+            solver.submit(handle, algorithm, problem, random, params);
+            SolverHandle submitted = handle;
+            CompletableFuture<?> future = handle.getFuture().whenComplete((solution, exception) -> {
+                running.remove(id, submitted);
+                slots.release();
+                if (exception instanceof CancellationException) {
+                    output.println(id + " error Cancelled before starting.");
+                } else if (exception != null) {
+                    output.println(id + " error " + message(exception));
+                } else {
+                    solution.update();
+                    output.println(String.format("%s done %d %d %.3f", id, solution.getMakespan(),
+                            solution.getSumMachinesMakespan(), (System.nanoTime() - start) / 1000000000.0));
+                    if (request.showSolution) {
+                        output.println(id + " solution " + format(problem, solution));
+                    }
+                }
+            });
+            pending.add(future);
+            future.whenComplete((result, exception) -> pending.remove(future));
+
+        } catch (Exception e) {
+            if (handle != null) {
+                running.remove(id, handle);
+            }
+            if (acquired) {
+                slots.release();
+            }
+            output.println(id + " error " + message(e));
+        }
+    }
+
+    /**
+     * Load an instance file, reusing the instances already loaded (the file is loaded again if
+     * it was modified).
+     * @param path Path to the instance file.
+     * @return The problem instance.
+     * @throws IOException If an error occurs while reading the instance file.
+     */
+    private Problem loadProblem(Path path) throws IOException {
+        String key = path.toAbsolutePath().normalize() + ":" + Files.getLastModifiedTime(path).toMillis();
+        synchronized (cache) {
+            Problem problem = cache.get(key);
+            if (problem != null) {
+                return problem;
+            }
+        }
+
+        Problem problem = new Problem(path);
+        synchronized (cache) {
+            cache.put(key, problem);
+        }
+        return problem;
+    }
+
+    /**
+     * Stop accepting requests and cancel the running ones (they report the best solution found
+     * up to the cancellation).
+     */
+    private void shutdown() {
+        shutdown = true;
+        for (SolverHandle handle : running.values()) {
+            handle.cancel();
+        }
+        if (server != null) {
+            try {
+                server.close();
+            } catch (IOException e) {
+                // Nothing to do
+            }
+        }
+    }
+
+    private static String format(Problem problem, Solution solution) {
+        StringBuilder builder = new StringBuilder();
+        for (int k = 0; k < problem.m; ++k) {
+            if (k > 0) {
+                builder.append(" |");
+            }
+            for (int idx = 0; idx < solution.count(k); ++idx) {
+                builder.append(' ').append(solution.get(k, idx));
+            }
+        }
+        return builder.toString().trim();
+    }
+
+    private static String message(Throwable e) {
+        if (e instanceof CompletionException && e.getCause() != null) {
+            e = e.getCause();
+        }
+        if (e instanceof NoSuchFileException) {
+            return "File not found: " + e.getMessage();
+        }
+        String message = (e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage());
+        return message.replaceAll("\\s+", " ");
+    }
+
+
+    // --------------------------------------------------------------------------------------------
+    // Auxiliary classes
+    // --------------------------------------------------------------------------------------------
+
+    /**
+     * Output of the responses, shared by the threads solving the requests of a connection.
+     */
+    private static class Output {
+
+        private final PrintWriter writer;
+
+        Output(OutputStream out) {
+            this.writer = new PrintWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+        }
+
+        synchronized void println(String line) {
+            writer.println(line);
+            writer.flush();
+        }
+    }
+
+}
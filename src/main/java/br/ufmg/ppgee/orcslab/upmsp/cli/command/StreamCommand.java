@@ -0,0 +1,157 @@
+package br.ufmg.ppgee.orcslab.upmsp.cli.command;
+
+import br.ufmg.ppgee.orcslab.upmsp.algorithm.RollingHorizon;
+import br.ufmg.ppgee.orcslab.upmsp.cli.util.Param;
+import br.ufmg.ppgee.orcslab.upmsp.cli.util.ParamConverter;
+import br.ufmg.ppgee.orcslab.upmsp.problem.Problem;
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.Parameters;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Schedule jobs that arrive over time with a {@link RollingHorizon}. Each line of the input has
+ * the arrival time and the job (index in the instance file), and the changes in the schedule are
+ * printed after each arrival:
+ * <pre>
+ *     &lt;time&gt; commit &lt;machine&gt; &lt;job&gt; &lt;start&gt; &lt;completion&gt;
+ *     &lt;time&gt; plan &lt;machine&gt; &lt;job&gt;@&lt;start&gt; ...
+ *     &lt;time&gt; makespan &lt;C_max&gt;
+ * </pre>
+ */
+@Parameters(commandDescription = "Schedule jobs that arrive over time, re-optimizing the jobs not started yet at each arrival.")
+public class StreamCommand extends AbstractCommand {
+
+    @Parameter(names = "--instance", description = "Path to the instance file with the data of the jobs that may arrive.", required = true)
+    public String instancePath = null;
+
+    @Parameter(names = "--arrivals", description = "Path to the file with the arrivals (one '<time> <job>' per line). If not set, the arrivals are read from the standard input.")
+    public String arrivalsPath = null;
+
+    @Parameter(names = "--latency", description = "Time available to re-optimize the schedule at each arrival (in milliseconds).")
+    public Long latency = 100L;
+
+    @Parameter(names = "--horizon", description = "Jobs planned to start up to this time after an arrival are also committed (in the time unit of the instance).")
+    public Integer horizon = 0;
+
+    @Parameter(names = "--seed", description = "Seed used to initialize the random number generator.")
+    public Long seed = null;
+
+    @Parameter(names = "--param", description = "Parameters of the simulated annealing.", converter = ParamConverter.class)
+    public List<Param> parameters = new ArrayList<>();
+
+    private int[] countCommitted;
+    private List<List<String>> printed;
+
+    @Override
+    public void doRun(String name, JCommander cmd) throws Exception {
+
+        // Load the instance file
+        Problem problem = new Problem(Paths.get(instancePath));
+
+        // Parameters of the simulated annealing, as in the optimize command
+        OptimizeCommand optimize = new OptimizeCommand();
+        optimize.timeLimit = latency;
+        optimize.parameters = parameters;
+        Map<String, Object> params = optimize.createParameters(problem);
+
+        // Initialize the scheduler
+        Random random = (seed == null ? new Random() : new Random(seed));
+        RollingHorizon scheduler = new RollingHorizon(problem, random, params, horizon);
+
+        // Handle the arrivals
+        try (BufferedReader reader = (arrivalsPath == null
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Paths.get(arrivalsPath)))) {
+
+            // Output already printed
+            countCommitted = new int[problem.m];
+            printed = new ArrayList<>();
+            for (int k = 0; k < problem.m; ++k) {
+                printed.add(new ArrayList<>());
+            }
+
+            int time = 0;
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+
+                // Read the arrival
+                String[] tokens = line.split("\\s+");
+                int job;
+                try {
+                    time = Integer.parseInt(tokens[0]);
+                    job = Integer.parseInt(tokens[1]);
+                } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                    System.err.println("ERROR: Invalid arrival: " + line);
+                    continue;
+                }
+
+                // Update the schedule
+                try {
+                    scheduler.advance(time);
+                    printCommitted(scheduler, problem, time);
+                    scheduler.arrive(time, job);
+                } catch (IllegalArgumentException e) {
+                    System.err.println("ERROR: " + e.getMessage());
+                    continue;
+                }
+
+                printPlan(scheduler, problem, time);
+                System.out.println(String.format("%d makespan %d", time, scheduler.getMakespan()));
+            }
+
+            // Commit the remaining jobs
+            scheduler.finish();
+            printCommitted(scheduler, problem, time);
+            System.out.println(String.format("%d makespan %d", time, scheduler.getMakespan()));
+        }
+    }
+
+
+    // --------------------------------------------------------------------------------------------
+    // Auxiliary methods
+    // --------------------------------------------------------------------------------------------
+
+    /**
+     * Print the jobs committed since the last call.
+     */
+    private void printCommitted(RollingHorizon scheduler, Problem problem, int time) {
+        for (int k = 0; k < problem.m; ++k) {
+            List<Integer> jobs = scheduler.getCommitted(k);
+            for (int idx = countCommitted[k]; idx < jobs.size(); ++idx) {
+                int job = jobs.get(idx);
+                System.out.println(String.format("%d commit %d %d %d %d", time, k, job,
+                        scheduler.getStart(job), scheduler.getCompletion(job)));
+            }
+            countCommitted[k] = jobs.size();
+        }
+    }
+
+    /**
+     * Print the plan of the machines whose plan changed since the last call.
+     */
+    private void printPlan(RollingHorizon scheduler, Problem problem, int time) {
+        for (int k = 0; k < problem.m; ++k) {
+            List<String> plan = new ArrayList<>();
+            for (int job : scheduler.getPlan(k)) {
+                plan.add(job + "@" + scheduler.getStart(job));
+            }
+            if (!plan.equals(printed.get(k))) {
+                System.out.println(String.format("%d plan %d %s", time, k, String.join(" ", plan)).trim());
+                printed.set(k, plan);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,296 @@
+package br.ufmg.ppgee.orcslab.upmsp.cli.command;
+
+import br.ufmg.ppgee.orcslab.upmsp.algorithm.Algorithm;
+import br.ufmg.ppgee.orcslab.upmsp.cli.util.NoSplitter;
+import br.ufmg.ppgee.orcslab.upmsp.cli.util.Param;
+import br.ufmg.ppgee.orcslab.upmsp.cli.util.ParamConverter;
+import br.ufmg.ppgee.orcslab.upmsp.problem.Problem;
+import br.ufmg.ppgee.orcslab.upmsp.problem.Solution;
+import br.ufmg.ppgee.orcslab.upmsp.util.FriedmanTest;
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.ParameterException;
+import com.beust.jcommander.Parameters;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Tune the parameters of an algorithm by racing (F-race [1]). Candidate configurations (the
+ * default one and configurations sampled from the ranges of the parameters) are run on the
+ * training instances, one instance per stage, with the same seed for all configurations of a
+ * stage. The runs of a stage are performed in parallel. After the first stages, the
+ * configurations that are significantly worse than the best one (Friedman test and pairwise
+ * comparisons) are discarded, so the remaining runs are spent on the promising configurations.
+ * The best configuration is written to a parameter file, which is loaded by the command
+ * "optimize" with the option {@code --param-file}.
+ *
+ * <p>[1] Birattari, St&uuml;tzle, Paquete and Varrentrapp. A racing algorithm for configuring
+ * metaheuristics. Proceedings of the Genetic and Evolutionary Computation Conference, 2002.
+ */
+@Parameters(commandDescription = "Tune the parameters of an algorithm on a set of instances by racing.")
+public class TuneCommand extends AbstractCommand {
+
+    @Parameter(names = "--verbose", description = "Show the progress of the race.")
+    public boolean verbose = false;
+
+    @Parameter(names = "--instances", description = "Path to the directory containing the training instance files or a glob pattern (e.g., 'instances/I_50_*.txt').", required = true)
+    public String instancesPath = null;
+
+    @Parameter(names = "--options", description = "Options of the optimize command used by all runs (e.g., '--algorithm simulated-annealing --time-limit 2000').")
+    public String options = "";
+
+    @Parameter(names = "--range", description = "Range of a parameter, as NAME=MIN:MAX or NAME=VALUE1,VALUE2,... (default: the parameters of the simulated annealing; required to tune the other algorithms).", converter = ParamConverter.class, splitter = NoSplitter.class)
+    public List<Param> ranges = new ArrayList<>();
+
+    @Parameter(names = "--configurations", description = "Number of candidate configurations (including the default one).")
+    public Integer configurations = 32;
+
+    @Parameter(names = "--budget", description = "Maximum number of runs.")
+    public Long budget = 1000L;
+
+    @Parameter(names = "--first-test", description = "Number of stages before the first statistical test.")
+    public Integer firstTest = 5;
+
+    @Parameter(names = "--alpha", description = "Significance level of the statistical tests.")
+    public Double alpha = 0.05;
+
+    @Parameter(names = "--threads", description = "Number of runs performed in parallel.")
+    public Integer threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
+    @Parameter(names = "--seed", description = "Seed used to sample the configurations and to solve the instances.")
+    public Long seed = 1L;
+
+    @Parameter(names = "--output", description = "Path to the parameter file in which the best configuration will be saved.")
+    public String outputPath = "parameters.txt";
+
+    @Override
+    public void doRun(String name, JCommander cmd) throws Exception {
+
+        // Training instances (in random order)
+        Random random = new Random(seed);
+        List<Path> instances = BatchCommand.listInstances(instancesPath);
+        if (instances.isEmpty()) {
+            throw new ParameterException("No instance file found: " + instancesPath);
+        }
+        Collections.shuffle(instances, random);
+
+        // Candidate configurations: the default one and configurations sampled from the ranges
+        // (the default ranges are the ones of the simulated annealing, so they are not used with
+        // the other algorithms)
+        List<Range> parameterRanges = new ArrayList<>();
+        if (ranges.isEmpty()) {
+            OptimizeCommand optimize = new OptimizeCommand();
+            BatchCommand.parse(optimize, options.trim().isEmpty() ? new String[0] : options.trim().split("\\s+"), instances.get(0));
+            if (!"simulated-annealing".equalsIgnoreCase(optimize.algorithmName)) {
+                throw new ParameterException("The option --range is required to tune the algorithm " + optimize.algorithmName + ".");
+            }
+            parameterRanges.add(new Range("initial-temperature", "0.1:10"));
+            parameterRanges.add(new Range("cooling-rate", "0.8:0.99"));
+            parameterRanges.add(new Range("iterations-per-temperature", "10000:2000000"));
+        }
+        for (Param range : ranges) {
+            parameterRanges.add(new Range(range.name, range.value));
+        }
+        List<List<Param>> candidates = new ArrayList<>();
+        candidates.add(new ArrayList<>());
+        while (candidates.size() < configurations) {
+            List<Param> candidate = new ArrayList<>();
+            for (Range range : parameterRanges) {
+                candidate.add(new Param(range.name, range.sample(random)));
+            }
+            candidates.add(candidate);
+        }
+
+        // Configurations not discarded yet and their results, indexed by stage
+        List<Integer> alive = new ArrayList<>();
+        for (int idx = 0; idx < candidates.size(); ++idx) {
+            alive.add(idx);
+        }
+        List<double[]> results = new ArrayList<>();
+        long runs = 0L;
+
+        // Race: each stage solves an instance with all configurations alive
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            while (alive.size() > 1 && runs + alive.size() <= budget) {
+                int stage = results.size();
+                Path instance = instances.get(stage % instances.size());
+                Problem problem = new Problem(instance);
+                long runSeed = seed + stage;
+
+                // Run the configurations in parallel
+                double[] block = new double[candidates.size()];
+                Arrays.fill(block, Double.NaN);
+                List<ForkJoinTask<?>> futures = new ArrayList<>(alive.size());
+                for (int idx : alive) {
+                    List<Param> candidate = candidates.get(idx);
+                    futures.add(pool.submit(() -> block[idx] = evaluate(problem, instance, candidate, runSeed)));
+                }
+                for (ForkJoinTask<?> future : futures) {
+                    future.join();
+                }
+                results.add(block);
+                runs += alive.size();
+
+                // Discard the configurations significantly worse than the best one
+                if (results.size() >= firstTest) {
+                    FriedmanTest test = test(results, alive);
+                    List<Integer> survivors = new ArrayList<>();
+                    for (int idx = 0; idx < alive.size(); ++idx) {
+                        if (!test.isWorseThanBest(idx)) {
+                            survivors.add(alive.get(idx));
+                        }
+                    }
+                    alive = survivors;
+                }
+
+                // Log
+                if (verbose) {
+                    System.out.println(String.format("Stage %d (%s): %d configurations alive, %d runs",
+                            results.size(), instance.getFileName(), alive.size(), runs));
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        // Best configuration: the lowest sum of ranks among the configurations alive
+        int best = alive.get(0);
+        if (!results.isEmpty()) {
+            best = alive.get(test(results, alive).getBest());
+        }
+        List<Param> configuration = candidates.get(best);
+
+        // Write the parameter file
+        Path output = Paths.get(outputPath).toAbsolutePath();
+        Files.createDirectories(output.getParent());
+        try (BufferedWriter writer = Files.newBufferedWriter(output)) {
+            writer.write(String.format("# Tuned on '%s' with options '%s'", instancesPath, options));
+            writer.newLine();
+            writer.write(String.format("# %d runs, %d stages, %d of %d configurations alive%s", runs,
+                    results.size(), alive.size(), candidates.size(), best == 0 ? " (default selected)" : ""));
+            writer.newLine();
+            for (Param param : configuration) {
+                writer.write(param.name + "=" + param.value);
+                writer.newLine();
+            }
+        }
+
+        // Print the best configuration
+        if (configuration.isEmpty()) {
+            System.out.println("default configuration");
+        }
+        for (Param param : configuration) {
+            System.out.println(param.name + "=" + param.value);
+        }
+    }
+
+
+    // --------------------------------------------------------------------------------------------
+    // Auxiliary methods
+    // --------------------------------------------------------------------------------------------
+
+    /**
+     * Solve an instance with a configuration.
+     * @param problem The problem instance.
+     * @param instance Path to the instance file.
+     * @param configuration Parameters of the configuration (they override the ones of
+     *                      {@code --options}).
+     * @param seed Seed of the random number generator.
+     * @return The makespan of the solution found.
+     */
+    private double evaluate(Problem problem, Path instance, List<Param> configuration, long seed) {
+        try {
+            OptimizeCommand optimize = new OptimizeCommand();
+            BatchCommand.parse(optimize, options.trim().isEmpty() ? new String[0] : options.trim().split("\\s+"), instance);
+            optimize.parameters.addAll(configuration);
+
+            Algorithm algorithm = optimize.createAlgorithm();
+            Map<String, Object> params = optimize.createParameters(problem);
+            Solution solution = algorithm.solve(problem, new Random(seed), params, null);
+            solution.update();
+            return solution.getMakespan();
+        } catch (IOException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Perform the Friedman test with the results of the configurations alive.
+     */
+    private FriedmanTest test(List<double[]> results, List<Integer> alive) {
+        double[][] data = new double[results.size()][alive.size()];
+        for (int stage = 0; stage < results.size(); ++stage) {
+            for (int idx = 0; idx < alive.size(); ++idx) {
+                data[stage][idx] = results.get(stage)[alive.get(idx)];
+            }
+        }
+        return new FriedmanTest(data, alpha);
+    }
+
+
+    // --------------------------------------------------------------------------------------------
+    // Auxiliary classes
+    // --------------------------------------------------------------------------------------------
+
+    /**
+     * Range of values of a parameter: an interval ({@code MIN:MAX}) or a list of values
+     * ({@code VALUE1,VALUE2,...}). Intervals are sampled in log scale if their bounds are
+     * positive and differ by more than an order of magnitude, and they are integer if both
+     * bounds are integer.
+     */
+    private static class Range {
+
+        final String name;
+        final String[] values;
+        final double min;
+        final double max;
+        final boolean integer;
+        final boolean logScale;
+
+        Range(String name, String range) {
+            this.name = name;
+            if (range.contains(":")) {
+                String[] bounds = range.split(":");
+                try {
+                    this.min = Double.parseDouble(bounds[0]);
+                    this.max = Double.parseDouble(bounds[1]);
+                } catch (RuntimeException e) {
+                    throw new ParameterException("Invalid range of the parameter " + name + ": " + range);
+                }
+                this.values = null;
+                this.integer = bounds[0].matches("-?\\d+") && bounds[1].matches("-?\\d+");
+                this.logScale = min > 0.0 && max / min > 10.0;
+            } else {
+                this.values = range.split(",");
+                this.min = 0.0;
+                this.max = 0.0;
+                this.integer = false;
+                this.logScale = false;
+            }
+        }
+
+        String sample(Random random) {
+            if (values != null) {
+                return values[random.nextInt(values.length)];
+            }
+
+            double value = (logScale ? Math.exp(Math.log(min) + random.nextDouble() * Math.log(max / min))
+                    : min + random.nextDouble() * (max - min));
+            if (integer) {
+                return Long.toString(Math.round(value));
+            }
+            return new BigDecimal(value).round(new MathContext(4)).stripTrailingZeros().toPlainString();
+        }
+    }
+
+}
@@ -0,0 +1,19 @@
+package br.ufmg.ppgee.orcslab.upmsp.cli.util;
+
+import com.beust.jcommander.converters.IParameterSplitter;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Custom splitter that keeps each value of a list option as a single element, so values with
+ * commas (e.g., lists of values of a parameter) are not split.
+ */
+public class NoSplitter implements IParameterSplitter {
+
+    @Override
+    public List<String> split(String value) {
+        return Collections.singletonList(value);
+    }
+
+}
@@ -9,7 +9,7 @@ public class ParamConverter implements IStringConverter<Param> {
 
     @Override
     public Param convert(String value) {
-        String[] s = value.split("=");
+        String[] s = value.split("=", 2);
         return new Param(s[0], s[1]);
     }
 
@@ -0,0 +1,261 @@
+package br.ufmg.ppgee.orcslab.upmsp.neighborhood;
+
+import br.ufmg.ppgee.orcslab.upmsp.problem.Problem;
+import br.ufmg.ppgee.orcslab.upmsp.problem.Solution;
+
+import java.util.Random;
+
+/**
+ * Neighborhood that keeps the best moves found by another one (transposition table). The search
+ * often returns to solutions already explored, and the best neighbor of a solution does not
+ * change, so the best move is stored with the hash of the solution (see
+ * {@link Solution#getHash()}) and the target machine as key. When the best neighbor of a solution
+ * is requested again, the move is applied to it instead of evaluating the whole neighborhood.
+ * <p>
+ * A move is stored as the new sequences of the machines it changes (at most two, for the
+ * neighborhoods of this package), so it is applied in time proportional to the number of jobs of
+ * these machines. The moves are stored in a fixed-size hash table with open addressing and linear
+ * probing: when the probe sequence of a key is full, the least recently used entry in it is
+ * replaced. Since different solutions may have the same hash, a move is applied only if the jobs
+ * it moves are on the machines it changes. The random neighbors are not cached.
+ * <p>
+ * This class is not thread-safe: each thread must use its own neighborhoods.
+ */
+public class CachedNeighborhood implements Neighborhood {
+
+    /**
+     * Maximum number of slots probed for a key.
+     */
+    private static final int MAX_PROBES = 8;
+
+    private final Neighborhood neighborhood;
+    private final long[] keys;
+    private final long[] uses;
+    private final int[][] moves;
+    private final int mask;
+    private final int shift;
+    private long clock;
+    private long hits;
+    private long misses;
+
+    /**
+     * Constructor.
+     * @param neighborhood The neighborhood whose best moves are cached.
+     * @param capacity Number of moves stored (rounded up to a power of two).
+     */
+    public CachedNeighborhood(Neighborhood neighborhood, int capacity) {
+        int size = Integer.highestOneBit(Math.max(MAX_PROBES, capacity - 1)) << 1;
+        this.neighborhood = neighborhood;
+        this.keys = new long[size];
+        this.uses = new long[size];
+        this.moves = new int[size][];
+        this.mask = size - 1;
+        this.shift = 64 - Integer.numberOfTrailingZeros(size);
+        this.clock = 0L;
+        this.hits = 0L;
+        this.misses = 0L;
+    }
+
+    @Override
+    public String getName() {
+        return neighborhood.getName();
+    }
+
+    @Override
+    public Solution getBestNeighbor(Problem problem, Solution solution) {
+        return getBestNeighbor(problem, solution, -1);
+    }
+
+    @Override
+    public Solution getBestNeighbor(Problem problem, Solution solution, int target) {
+        long key = key(solution.getHash(), target);
+
+        // Apply the stored move
+        int slot = find(key);
+        if (slot >= 0) {
+            Solution neighbor = apply(solution, moves[slot]);
+            if (neighbor != null) {
+                ++hits;
+                uses[slot] = ++clock;
+                return neighbor;
+            }
+        }
+
+        // Evaluate the neighborhood and store the best move
+        ++misses;
+        Solution neighbor = (target < 0 ? neighborhood.getBestNeighbor(problem, solution)
+                : neighborhood.getBestNeighbor(problem, solution, target));
+        put(key, move(problem, solution, neighbor));
+        return neighbor;
+    }
+
+    @Override
+    public Solution getAnyNeighbor(Problem problem, Solution solution, Random random) {
+        return neighborhood.getAnyNeighbor(problem, solution, random);
+    }
+
+    @Override
+    public Solution getAnyNeighbor(Problem problem, Solution solution, Random random, int target) {
+        return neighborhood.getAnyNeighbor(problem, solution, random, target);
+    }
+
+    @Override
+    public Stats getStats(Problem problem, Solution solution) {
+        return neighborhood.getStats(problem, solution);
+    }
+
+    /**
+     * Return the number of best neighbors obtained from the stored moves.
+     * @return The number of hits.
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Return the number of best neighbors obtained by evaluating the neighborhood.
+     * @return The number of misses.
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+
+    // --------------------------------------------------------------------------------------------
+    // Auxiliary methods
+    // --------------------------------------------------------------------------------------------
+
+    /**
+     * Key of a solution and a target machine (-1 if there is no target). The value 0 marks the
+     * empty slots, so it is not used as key.
+     */
+    private static long key(long hash, int target) {
+        long key = hash ^ ((target + 2L) * 0xBF58476D1CE4E5B9L);
+        return (key == 0L ? 0x9E3779B97F4A7C15L : key);
+    }
+
+    /**
+     * Slot of a key by Fibonacci hashing.
+     */
+    private int index(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+
+    /**
+     * Return the slot of a key, or -1 if it is not in the table.
+     */
+    private int find(long key) {
+        int slot = index(key);
+        for (int probe = 0; probe < MAX_PROBES; ++probe, slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            if (keys[slot] == 0L) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Store the move of a key, replacing the least recently used entry of the probe sequence if
+     * it is full.
+     */
+    private void put(long key, int[] move) {
+        int slot = index(key);
+        int oldest = slot;
+        for (int probe = 0; probe < MAX_PROBES; ++probe, slot = (slot + 1) & mask) {
+            if (keys[slot] == key || keys[slot] == 0L) {
+                oldest = slot;
+                break;
+            }
+            if (uses[slot] < uses[oldest]) {
+                oldest = slot;
+            }
+        }
+        keys[oldest] = key;
+        uses[oldest] = ++clock;
+        moves[oldest] = move;
+    }
+
+    /**
+     * Return the move from a solution to its neighbor: the machine, the number of jobs and the
+     * jobs of each machine whose sequence is changed.
+     */
+    private static int[] move(Problem problem, Solution solution, Solution neighbor) {
+        int length = 0;
+        boolean[] changed = new boolean[problem.m];
+        for (int k = 0; k < problem.m; ++k) {
+            changed[k] = (solution.count(k) != neighbor.count(k));
+            for (int idx = 0; !changed[k] && idx < neighbor.count(k); ++idx) {
+                changed[k] = (solution.get(k, idx) != neighbor.get(k, idx));
+            }
+            if (changed[k]) {
+                length += 2 + neighbor.count(k);
+            }
+        }
+
+        int[] move = new int[length];
+        int position = 0;
+        for (int k = 0; k < problem.m; ++k) {
+            if (changed[k]) {
+                move[position++] = k;
+                move[position++] = neighbor.count(k);
+                for (int idx = 0; idx < neighbor.count(k); ++idx) {
+                    move[position++] = neighbor.get(k, idx);
+                }
+            }
+        }
+        return move;
+    }
+
+    /**
+     * Apply a move to a copy of a solution. Return null if the jobs of the move are not on the
+     * machines it changes (the key of another solution is the same).
+     */
+    private static Solution apply(Solution solution, int[] move) {
+
+        // Check the jobs of the move
+        int count = 0;
+        for (int position = 0; position < move.length; position += 2 + move[position + 1]) {
+            count += move[position + 1] - solution.count(move[position]);
+            for (int idx = 0; idx < move[position + 1]; ++idx) {
+                if (!changes(move, solution.getAssignment(move[position + 2 + idx]))) {
+                    return null;
+                }
+            }
+        }
+        if (count != 0) {
+            return null;
+        }
+
+        // Remove the jobs of the machines changed and add the new sequences
+        Solution neighbor = new Solution(solution);
+        for (int position = 0; position < move.length; position += 2 + move[position + 1]) {
+            int k = move[position];
+            while (neighbor.count(k) > 0) {
+                neighbor.remove(k, neighbor.count(k) - 1, false);
+            }
+        }
+        for (int position = 0; position < move.length; position += 2 + move[position + 1]) {
+            for (int idx = 0; idx < move[position + 1]; ++idx) {
+                neighbor.add(move[position + 2 + idx], move[position], idx, false);
+            }
+        }
+        neighbor.update();
+        return neighbor;
+    }
+
+    /**
+     * Return true if a machine is changed by a move.
+     */
+    private static boolean changes(int[] move, int k) {
+        for (int position = 0; position < move.length; position += 2 + move[position + 1]) {
+            if (move[position] == k) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
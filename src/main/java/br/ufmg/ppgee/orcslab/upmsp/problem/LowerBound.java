@@ -0,0 +1,98 @@
+package br.ufmg.ppgee.orcslab.upmsp.problem;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Lower bound on the makespan of the unrelated parallel machine scheduling problem with setup
+ * times dependent on the sequence and machine. The bound is the maximum of two relaxations:
+ * <ul>
+ *     <li>Each job must be processed by some machine, so the makespan is at least the largest
+ *     shortest processing time among all jobs.</li>
+ *     <li>Each job j assigned to a machine k contributes at least with {@code p[k][j]} plus the
+ *     smallest setup time to j on k, except the first job of each machine (which has no setup).
+ *     Therefore, the sum of the machines' makespan is at least the sum of the smallest
+ *     contributions of the jobs minus the largest setup time saved by each machine, and the
+ *     makespan is at least this sum divided by the number of machines.</li>
+ * </ul>
+ * The bounds are computed once per instance and cached.
+ */
+public class LowerBound {
+
+    /**
+     * Cache of lower bounds (the instances are compared by identity).
+     */
+    private static final Map<Problem, Integer> cache = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * Return the lower bound on the makespan of an instance.
+     * @param problem The problem instance.
+     * @return The lower bound on the makespan.
+     */
+    public static int of(Problem problem) {
+        return cache.computeIfAbsent(problem, LowerBound::compute);
+    }
+
+    /**
+     * Return the makespan that is considered good enough to stop the optimization process, i.e.,
+     * the makespan that is within the relative gap from the lower bound.
+     * @param problem The problem instance.
+     * @param gap The relative gap (e.g., 0.01 means 1% above the lower bound).
+     * @return The target makespan.
+     */
+    public static int target(Problem problem, double gap) {
+        return (int) Math.floor(of(problem) * (1.0 + gap));
+    }
+
+    /**
+     * Compute the lower bound on the makespan of an instance.
+     * @param problem The problem instance.
+     * @return The lower bound on the makespan.
+     */
+    private static int compute(Problem problem) {
+
+        // Smallest setup time to each job on each machine
+        int[][] minSetup = new int[problem.m][problem.n];
+        for (int k = 0; k < problem.m; ++k) {
+            for (int j = 0; j < problem.n; ++j) {
+                int min = Integer.MAX_VALUE;
+                for (int i = 0; i < problem.n; ++i) {
+                    if (i != j) {
+                        min = Math.min(min, problem.s[k][i][j]);
+                    }
+                }
+                minSetup[k][j] = (min == Integer.MAX_VALUE ? 0 : min);
+            }
+        }
+
+        // Bound based on the processing time of each job
+        long boundJob = 0L;
+
+        // Bound based on the sum of the machines' makespan
+        long sum = 0L;
+        for (int j = 0; j < problem.n; ++j) {
+            int minProcessing = Integer.MAX_VALUE;
+            int minContribution = Integer.MAX_VALUE;
+            for (int k = 0; k < problem.m; ++k) {
+                minProcessing = Math.min(minProcessing, problem.p[k][j]);
+                minContribution = Math.min(minContribution, problem.p[k][j] + minSetup[k][j]);
+            }
+            boundJob = Math.max(boundJob, minProcessing);
+            sum += minContribution;
+        }
+
+        for (int k = 0; k < problem.m; ++k) {
+            int maxSaving = 0;
+            for (int j = 0; j < problem.n; ++j) {
+                maxSaving = Math.max(maxSaving, minSetup[k][j]);
+            }
+            sum -= maxSaving;
+        }
+
+        long boundSum = Math.max(0L, (sum + problem.m - 1) / problem.m);
+
+        return (int) Math.max(boundJob, boundSum);
+    }
+
+}
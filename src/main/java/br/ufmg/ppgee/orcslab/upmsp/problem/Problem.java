@@ -30,6 +30,47 @@ public class Problem {
      */
     public final int[][][] s;
 
+    /**
+     * Construction from the processing and setup times. The arrays are not copied, and they may
+     * be larger than required (only the first {@code n} jobs are considered).
+     *
+     * @param n Number of jobs.
+     * @param m Number of machines.
+     * @param p Processing times ({@code p[k][j]} is the time of job j on machine k).
+     * @param s Setup times ({@code s[k][i][j]} is the setup time between jobs i and j on machine k).
+     */
+    public Problem(int n, int m, int[][] p, int[][][] s) {
+        this.n = n;
+        this.m = m;
+        this.p = p;
+        this.s = s;
+    }
+
+    /**
+     * Create a subproblem with some of the jobs and machines of this problem. The job
+     * {@code jobs[i]} and the machine {@code machines[k]} of this problem are the job i and the
+     * machine k of the subproblem.
+     *
+     * @param jobs Jobs of the subproblem.
+     * @param machines Machines of the subproblem.
+     * @return The subproblem.
+     */
+    public Problem subproblem(int[] jobs, int[] machines) {
+        int[][] subP = new int[machines.length][jobs.length];
+        int[][][] subS = new int[machines.length][jobs.length][jobs.length];
+        for (int k = 0; k < machines.length; ++k) {
+            int machine = machines[k];
+            for (int i = 0; i < jobs.length; ++i) {
+                subP[k][i] = p[machine][jobs[i]];
+                int[] setup = s[machine][jobs[i]];
+                for (int j = 0; j < jobs.length; ++j) {
+                    subS[k][i][j] = setup[jobs[j]];
+                }
+            }
+        }
+        return new Problem(jobs.length, machines.length, subP, subS);
+    }
+
     /**
      * Construction.
      *
@@ -37,7 +78,20 @@ public class Problem {
      * @throws IOException If an error occurs while reading the instance file.
      */
     public Problem(Path instance) throws IOException {
-        try (Scanner input = new Scanner(instance)) {
+        this(new Scanner(instance), true);
+    }
+
+    /**
+     * Construction from the instance data in the same format of the instance files.
+     *
+     * @param input Scanner from which the instance data is read (it is not closed).
+     */
+    public Problem(Scanner input) {
+        this(input, false);
+    }
+
+    private Problem(Scanner input, boolean close) {
+        try {
 
             // Read the size of the problem
             n = input.nextInt();
@@ -79,6 +133,10 @@ public class Problem {
                     }
                 }
             }
+        } finally {
+            if (close) {
+                input.close();
+            }
         }
     }
 
@@ -1,5 +1,10 @@
 package br.ufmg.ppgee.orcslab.upmsp.problem;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
 /**
  * A solution to the unrelated parallel machine scheduling problem with setup times dependent on the sequence
  * and machine.
@@ -14,6 +19,9 @@ public class Solution {
     private int sumMachinesMakespan;
     private int idxMakespanMachine;
     private boolean updated;
+    private long hash;
+    private final long[] machineHash;
+    private final boolean[] changed;
 
     /**
      * Constructor.
@@ -28,6 +36,9 @@ public class Solution {
         this.sumMachinesMakespan = 0;
         this.idxMakespanMachine = 0;
         this.updated = true;
+        this.hash = 0L;
+        this.machineHash = new long[problem.m];
+        this.changed = new boolean[problem.m];
     }
 
     /**
@@ -45,6 +56,49 @@ public class Solution {
         this.sumMachinesMakespan = solution.sumMachinesMakespan;
         this.idxMakespanMachine = solution.idxMakespanMachine;
         this.updated = solution.updated;
+        this.hash = solution.hash;
+        System.arraycopy(solution.machineHash, 0, this.machineHash, 0, problem.m);
+        System.arraycopy(solution.changed, 0, this.changed, 0, problem.m);
+    }
+
+    /**
+     * Constructor that reads the solution from a file with one line per machine, each one
+     * with the jobs processed by the machine (in order) separated by spaces. This is the format
+     * of the files written by the command {@code track}. Note that the feasibility of the solution
+     * is not checked (see {@link #isFeasible(StringBuilder)}).
+     * @param problem An instance of the problem.
+     * @param path Path to the solution file.
+     * @throws IOException If an error occurs while reading the file or if it is malformed.
+     */
+    public Solution(final Problem problem, Path path) throws IOException {
+        this(problem);
+
+        List<String> lines = Files.readAllLines(path);
+        for (int idx = problem.m; idx < lines.size(); ++idx) {
+            if (!lines.get(idx).trim().isEmpty()) {
+                throw new IOException(String.format("The solution file has more than %d machines.", problem.m));
+            }
+        }
+
+        for (int k = 0; k < Math.min(problem.m, lines.size()); ++k) {
+            String line = lines.get(k).trim();
+            if (!line.isEmpty()) {
+                for (String token : line.split("\\s+")) {
+                    int job;
+                    try {
+                        job = Integer.parseInt(token);
+                    } catch (NumberFormatException e) {
+                        throw new IOException(String.format("Invalid job \"%s\" in machine %d.", token, k));
+                    }
+                    if (job < 0 || job >= problem.n || countJobs[k] >= problem.n) {
+                        throw new IOException(String.format("Invalid job %d in machine %d.", job, k));
+                    }
+                    add(job, k, false);
+                }
+            }
+        }
+
+        update();
     }
 
     /**
@@ -89,6 +143,9 @@ public class Solution {
         makespan[k] += getCostAdd(job, k, position);
         sumMachinesMakespan += makespan[k];
 
+        // The hash of the machine must be computed again
+        changed[k] = true;
+
         // Shift task to the right
         System.arraycopy(machines[k], position, machines[k], position + 1, countJobs[k] - position);
 
@@ -121,6 +178,9 @@ public class Solution {
         makespan[k] += getCostRemove(k, position);
         sumMachinesMakespan += makespan[k];
 
+        // The hash of the machine must be computed again
+        changed[k] = true;
+
         // Shift task to the left
         System.arraycopy(machines[k], position + 1, machines[k], position, countJobs[k] - position - 1);
 
@@ -154,6 +214,9 @@ public class Solution {
         makespan[k] += getCostSet(job, k, position);
         sumMachinesMakespan += makespan[k];
 
+        // The hash of the machine must be computed again
+        changed[k] = true;
+
         // Change the job at the position
         machines[k][position] = job;
 
@@ -223,6 +286,31 @@ public class Solution {
         return idxMakespanMachine;
     }
 
+    /**
+     * Return a 64-bit hash of this solution, which is the same for solutions with the same
+     * sequences of jobs on the machines. It is the exclusive or of a key for each pair of
+     * consecutive jobs (job, machine and predecessor, in which the first job of a machine has no
+     * predecessor), as in the Zobrist hashing. The hash of each machine is kept as well, and
+     * adding, removing or setting a job only marks its machine as changed (in constant time, so
+     * the evaluation of moves is not slowed down); this method computes the hash of the changed
+     * machines again. Different solutions may have the same hash, but this is unlikely.
+     * @return The hash of this solution.
+     */
+    public long getHash() {
+        for (int k = 0; k < problem.m; ++k) {
+            if (changed[k]) {
+                long value = 0L;
+                for (int idx = 0; idx < countJobs[k]; ++idx) {
+                    value ^= arc(k, idx > 0 ? machines[k][idx - 1] : -1, machines[k][idx]);
+                }
+                hash ^= machineHash[k] ^ value;
+                machineHash[k] = value;
+                changed[k] = false;
+            }
+        }
+        return hash;
+    }
+
     /**
      * Return the change on the machines' makespan if a job is added in a specified position.
      * @param job The job to add.
@@ -413,6 +501,21 @@ public class Solution {
         }
     }
 
+    /**
+     * Key of a pair of consecutive jobs. A table with a key for each pair would have m (n + 1) n
+     * entries, so the key is computed by the SplitMix64 mixing function from the index of the pair.
+     * @param k The machine.
+     * @param previous The predecessor (or -1 if the job is the first of the machine).
+     * @param job The job.
+     * @return The key.
+     */
+    private long arc(int k, int previous, int job) {
+        long z = (((long) k * (problem.n + 1) + previous + 1) * problem.n + job + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
     @Override
     public String toString() {
         StringBuilder builder = new StringBuilder();
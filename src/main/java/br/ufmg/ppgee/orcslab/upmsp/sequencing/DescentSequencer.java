@@ -0,0 +1,252 @@
+package br.ufmg.ppgee.orcslab.upmsp.sequencing;
+
+import br.ufmg.ppgee.orcslab.upmsp.neighborhood.Shift;
+import br.ufmg.ppgee.orcslab.upmsp.neighborhood.Switch;
+import br.ufmg.ppgee.orcslab.upmsp.neighborhood.TwoShift;
+import br.ufmg.ppgee.orcslab.upmsp.problem.Problem;
+
+/**
+ * Heuristic sequencing by a best improvement descent with the moves of the neighborhoods that
+ * change a single machine: {@link Shift} (move a job to another position), {@link Switch} (swap
+ * two jobs) and {@link TwoShift} (move two jobs to other positions). The neighborhoods are
+ * explored in this order, restarting from the first one whenever the sequence is improved.
+ * <p>
+ * Unlike the neighborhoods, which copy and update a {@link br.ufmg.ppgee.orcslab.upmsp.problem.Solution},
+ * the moves are evaluated in constant time on a private copy of the sequence, so the machines of
+ * a solution can be improved in parallel (see {@link MachineSequencer}).
+ */
+public class DescentSequencer implements Sequencer {
+
+    @Override
+    public int sequence(Problem problem, int k, int[] jobs) {
+        int n = jobs.length;
+        int[][] s = problem.s[k];
+
+        // Private buffer for the sequence without the jobs moved by the Two-Shift
+        int[] buffer = new int[n];
+
+        // Variable neighborhood descent
+        int neighborhood = 0;
+        while (neighborhood < 3) {
+            boolean improved;
+            switch (neighborhood) {
+                case 0: improved = shift(s, jobs); break;
+                case 1: improved = swap(s, jobs); break;
+                default: improved = twoShift(s, jobs, buffer); break;
+            }
+            neighborhood = (improved ? 0 : neighborhood + 1);
+        }
+
+        // Makespan of the machine
+        int makespan = 0;
+        for (int idx = 0; idx < n; ++idx) {
+            makespan += problem.p[k][jobs[idx]] + (idx > 0 ? s[jobs[idx - 1]][jobs[idx]] : 0);
+        }
+        return makespan;
+    }
+
+
+    // --------------------------------------------------------------------------------------------
+    // Auxiliary methods
+    // --------------------------------------------------------------------------------------------
+
+    /**
+     * Apply the best move of a job to another position, if it improves the sequence.
+     */
+    private static boolean shift(int[][] s, int[] jobs) {
+        int n = jobs.length;
+        int bestDelta = 0;
+        int bestSource = -1;
+        int bestTarget = -1;
+
+        for (int source = 0; source < n; ++source) {
+            int job = jobs[source];
+            int before = (source > 0 ? jobs[source - 1] : -1);
+            int after = (source < n - 1 ? jobs[source + 1] : -1);
+            int removal = setup(s, before, job) + setup(s, job, after) - setup(s, before, after);
+
+            // Position in the sequence without the job
+            for (int target = 0; target < n; ++target) {
+                if (target == source) {
+                    continue;
+                }
+                int u = (target > 0 ? jobs[target - 1 < source ? target - 1 : target] : -1);
+                int v = (target < n - 1 ? jobs[target < source ? target : target + 1] : -1);
+                int delta = setup(s, u, job) + setup(s, job, v) - setup(s, u, v) - removal;
+                if (delta < bestDelta) {
+                    bestDelta = delta;
+                    bestSource = source;
+                    bestTarget = target;
+                }
+            }
+        }
+
+        if (bestSource < 0) {
+            return false;
+        }
+
+        int job = jobs[bestSource];
+        if (bestTarget < bestSource) {
+            System.arraycopy(jobs, bestTarget, jobs, bestTarget + 1, bestSource - bestTarget);
+        } else {
+            System.arraycopy(jobs, bestSource + 1, jobs, bestSource, bestTarget - bestSource);
+        }
+        jobs[bestTarget] = job;
+        return true;
+    }
+
+    /**
+     * Apply the best swap of two jobs, if it improves the sequence.
+     */
+    private static boolean swap(int[][] s, int[] jobs) {
+        int n = jobs.length;
+        int bestDelta = 0;
+        int best1 = -1;
+        int best2 = -1;
+
+        for (int idx1 = 0; idx1 < n - 1; ++idx1) {
+            int job1 = jobs[idx1];
+            int before1 = (idx1 > 0 ? jobs[idx1 - 1] : -1);
+            for (int idx2 = idx1 + 1; idx2 < n; ++idx2) {
+                int job2 = jobs[idx2];
+                int after2 = (idx2 < n - 1 ? jobs[idx2 + 1] : -1);
+
+                int delta;
+                if (idx2 == idx1 + 1) {
+                    delta = setup(s, before1, job2) + s[job2][job1] + setup(s, job1, after2)
+                            - setup(s, before1, job1) - s[job1][job2] - setup(s, job2, after2);
+                } else {
+                    int after1 = jobs[idx1 + 1];
+                    int before2 = jobs[idx2 - 1];
+                    delta = setup(s, before1, job2) + s[job2][after1] + s[before2][job1] + setup(s, job1, after2)
+                            - setup(s, before1, job1) - s[job1][after1] - s[before2][job2] - setup(s, job2, after2);
+                }
+                if (delta < bestDelta) {
+                    bestDelta = delta;
+                    best1 = idx1;
+                    best2 = idx2;
+                }
+            }
+        }
+
+        if (best1 < 0) {
+            return false;
+        }
+
+        int job = jobs[best1];
+        jobs[best1] = jobs[best2];
+        jobs[best2] = job;
+        return true;
+    }
+
+    /**
+     * Apply the best move of two jobs to other positions, if it improves the sequence. The jobs
+     * are removed, the first one is inserted into the remaining sequence and then the second one.
+     */
+    private static boolean twoShift(int[][] s, int[] jobs, int[] buffer) {
+        int n = jobs.length;
+        if (n < 3) {
+            return false;
+        }
+
+        int current = cost(s, jobs, n);
+        int bestCost = current;
+        int best1 = -1;
+        int best2 = -1;
+        int bestTarget1 = -1;
+        int bestTarget2 = -1;
+
+        for (int idx1 = 0; idx1 < n; ++idx1) {
+            for (int idx2 = idx1 + 1; idx2 < n; ++idx2) {
+                int job1 = jobs[idx1];
+                int job2 = jobs[idx2];
+
+                // Sequence without the two jobs
+                int size = 0;
+                for (int idx = 0; idx < n; ++idx) {
+                    if (idx != idx1 && idx != idx2) {
+                        buffer[size++] = jobs[idx];
+                    }
+                }
+                int base = cost(s, buffer, size);
+
+                // Insert the first job, then the second one (in the sequence with the first one)
+                for (int target1 = 0; target1 <= size; ++target1) {
+                    int u1 = (target1 > 0 ? buffer[target1 - 1] : -1);
+                    int v1 = (target1 < size ? buffer[target1] : -1);
+                    int cost1 = base + setup(s, u1, job1) + setup(s, job1, v1) - setup(s, u1, v1);
+
+                    for (int target2 = 0; target2 <= size + 1; ++target2) {
+                        int u2 = (target2 > 0 ? at(buffer, job1, target1, target2 - 1) : -1);
+                        int v2 = (target2 <= size ? at(buffer, job1, target1, target2) : -1);
+                        int cost2 = cost1 + setup(s, u2, job2) + setup(s, job2, v2) - setup(s, u2, v2);
+                        if (cost2 < bestCost) {
+                            bestCost = cost2;
+                            best1 = idx1;
+                            best2 = idx2;
+                            bestTarget1 = target1;
+                            bestTarget2 = target2;
+                        }
+                    }
+                }
+            }
+        }
+
+        if (best1 < 0) {
+            return false;
+        }
+
+        // Rebuild the sequence with the best move
+        int job1 = jobs[best1];
+        int job2 = jobs[best2];
+        int size = 0;
+        for (int idx = 0; idx < n; ++idx) {
+            if (idx != best1 && idx != best2) {
+                buffer[size++] = jobs[idx];
+            }
+        }
+        int count = 0;
+        for (int idx = 0; idx <= size + 1; ++idx) {
+            if (idx == bestTarget2) {
+                jobs[count++] = job2;
+            }
+            if (idx <= size) {
+                jobs[count++] = at(buffer, job1, bestTarget1, idx);
+            }
+        }
+        assert count == n : "Invalid Two-Shift move";
+        return true;
+    }
+
+    /**
+     * Job at a position of the sequence {@code buffer} with {@code job} inserted at {@code target}.
+     */
+    private static int at(int[] buffer, int job, int target, int position) {
+        if (position < target) {
+            return buffer[position];
+        } else if (position == target) {
+            return job;
+        } else {
+            return buffer[position - 1];
+        }
+    }
+
+    /**
+     * Sum of the setup times of the first {@code size} jobs of a sequence.
+     */
+    private static int cost(int[][] s, int[] jobs, int size) {
+        int total = 0;
+        for (int idx = 1; idx < size; ++idx) {
+            total += s[jobs[idx - 1]][jobs[idx]];
+        }
+        return total;
+    }
+
+    /**
+     * Setup time between two jobs, in which -1 represents the start or the end of the sequence.
+     */
+    private static int setup(int[][] s, int i, int j) {
+        return (i < 0 || j < 0 ? 0 : s[i][j]);
+    }
+
+}
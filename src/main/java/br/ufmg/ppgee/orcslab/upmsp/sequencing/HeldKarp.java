@@ -0,0 +1,100 @@
+package br.ufmg.ppgee.orcslab.upmsp.sequencing;
+
+import br.ufmg.ppgee.orcslab.upmsp.problem.Problem;
+
+import java.util.Arrays;
+
+/**
+ * Exact sequencing by the dynamic programming of Held and Karp [1] over subsets of jobs (encoded
+ * as bit masks): {@code cost[S][j]} is the smallest sum of setup times of a path that visits the
+ * jobs of S and ends at job j. It takes O(2<sup>n</sup> n<sup>2</sup>) time and
+ * O(2<sup>n</sup> n) memory, so it is limited to machines with at most {@link #MAX_JOBS} jobs.
+ *
+ * <p>[1] Held and Karp. A dynamic programming approach to sequencing problems. Journal of the
+ * Society for Industrial and Applied Mathematics 10, 1, pp. 196-210, 1962.
+ */
+public class HeldKarp implements Sequencer {
+
+    /**
+     * Maximum number of jobs that can be sequenced.
+     */
+    public static final int MAX_JOBS = 16;
+
+    @Override
+    public int sequence(Problem problem, int k, int[] jobs) {
+        int n = jobs.length;
+        if (n > MAX_JOBS) {
+            throw new IllegalArgumentException("Exact sequencing is limited to " + MAX_JOBS + " jobs.");
+        }
+
+        // Processing times do not depend on the order
+        int processing = 0;
+        for (int job : jobs) {
+            processing += problem.p[k][job];
+        }
+        if (n <= 1) {
+            return processing;
+        }
+
+        // Copy the setup times among the jobs (contiguous, to improve locality)
+        int[] setup = new int[n * n];
+        for (int i = 0; i < n; ++i) {
+            for (int j = 0; j < n; ++j) {
+                setup[i * n + j] = problem.s[k][jobs[i]][jobs[j]];
+            }
+        }
+
+        // Paths with a single job have no setup
+        int full = (1 << n) - 1;
+        int[] cost = new int[(full + 1) * n];
+        byte[] previous = new byte[(full + 1) * n];
+        Arrays.fill(cost, Integer.MAX_VALUE);
+        for (int j = 0; j < n; ++j) {
+            cost[(1 << j) * n + j] = 0;
+            previous[(1 << j) * n + j] = -1;
+        }
+
+        // Extend the paths in increasing order of the subsets
+        for (int mask = 1; mask < full; ++mask) {
+            for (int j = 0; j < n; ++j) {
+                int current = cost[mask * n + j];
+                if (current == Integer.MAX_VALUE) {
+                    continue;
+                }
+                for (int l = 0; l < n; ++l) {
+                    if ((mask & (1 << l)) == 0) {
+                        int next = (mask | (1 << l)) * n + l;
+                        int value = current + setup[j * n + l];
+                        if (value < cost[next]) {
+                            cost[next] = value;
+                            previous[next] = (byte) j;
+                        }
+                    }
+                }
+            }
+        }
+
+        // Best last job
+        int last = 0;
+        for (int j = 1; j < n; ++j) {
+            if (cost[full * n + j] < cost[full * n + last]) {
+                last = j;
+            }
+        }
+        int best = cost[full * n + last];
+
+        // Rebuild the path backwards
+        int[] order = new int[n];
+        int mask = full;
+        for (int idx = n - 1; idx >= 0; --idx) {
+            order[idx] = jobs[last];
+            int before = previous[mask * n + last];
+            mask &= ~(1 << last);
+            last = before;
+        }
+        System.arraycopy(order, 0, jobs, 0, n);
+
+        return processing + best;
+    }
+
+}
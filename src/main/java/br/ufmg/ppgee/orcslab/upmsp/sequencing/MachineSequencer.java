@@ -0,0 +1,187 @@
+package br.ufmg.ppgee.orcslab.upmsp.sequencing;
+
+import br.ufmg.ppgee.orcslab.upmsp.problem.Problem;
+import br.ufmg.ppgee.orcslab.upmsp.problem.Solution;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Sequence the jobs of the machines of a solution, keeping the assignment of jobs to machines.
+ * Machines with few jobs are sequenced exactly by {@link HeldKarp}, and the other ones by a
+ * heuristic ({@link OrOpt}, by default, or {@link DescentSequencer}). Since the machines are
+ * independent, they may be sequenced in parallel. Optionally, the best known sequences of the sets
+ * of jobs are kept in a {@link SequenceCache}, so a set of jobs already sequenced on a machine is
+ * not sequenced again.
+ */
+public class MachineSequencer {
+
+    private final int exactLimit;
+    private final Sequencer exact;
+    private final Sequencer heuristic;
+    private final SequenceCache cache;
+
+    /**
+     * Constructor.
+     * @param exactLimit Machines with up to this number of jobs are sequenced exactly (at most
+     *                   {@link HeldKarp#MAX_JOBS}).
+     */
+    public MachineSequencer(int exactLimit) {
+        this(exactLimit, new OrOpt());
+    }
+
+    /**
+     * Constructor.
+     * @param exactLimit Machines with up to this number of jobs are sequenced exactly (at most
+     *                   {@link HeldKarp#MAX_JOBS}).
+     * @param heuristic Sequencer used for the other machines.
+     */
+    public MachineSequencer(int exactLimit, Sequencer heuristic) {
+        this(exactLimit, heuristic, null);
+    }
+
+    /**
+     * Constructor.
+     * @param exactLimit Machines with up to this number of jobs are sequenced exactly (at most
+     *                   {@link HeldKarp#MAX_JOBS}).
+     * @param heuristic Sequencer used for the other machines.
+     * @param cache Cache of the best known sequences, or null. It is used only for the solutions
+     *              of its problem instance.
+     */
+    public MachineSequencer(int exactLimit, Sequencer heuristic, SequenceCache cache) {
+        this.exactLimit = Math.min(exactLimit, HeldKarp.MAX_JOBS);
+        this.exact = new HeldKarp();
+        this.heuristic = heuristic;
+        this.cache = cache;
+    }
+
+    /**
+     * Sequence the jobs of a machine. The solution is changed only if the makespan of the machine
+     * is reduced.
+     * @param problem The instance of the problem.
+     * @param solution The solution.
+     * @param k The machine.
+     * @param update If true, the solution attributes (e.g. makespan) are updated.
+     * @return True if the makespan of the machine was reduced, or false otherwise.
+     */
+    public boolean improve(Problem problem, Solution solution, int k, boolean update) {
+        int[] jobs = sequence(problem, solution, k);
+        return jobs != null && apply(solution, k, jobs, update);
+    }
+
+    /**
+     * Sequence the jobs of all machines. The new sequences are computed in parallel by the
+     * executor (or in the current thread, if it is null) and then copied to the solution.
+     * @param problem The instance of the problem.
+     * @param solution The solution.
+     * @param executor Executor used to sequence the machines in parallel, or null.
+     * @return Number of machines whose makespan was reduced.
+     */
+    public int improveAll(Problem problem, Solution solution, ExecutorService executor) {
+        int[][] sequences = new int[problem.m][];
+
+        if (executor == null) {
+            for (int k = 0; k < problem.m; ++k) {
+                sequences[k] = sequence(problem, solution, k);
+            }
+        } else {
+            List<Future<?>> futures = new ArrayList<>(problem.m);
+            for (int k = 0; k < problem.m; ++k) {
+                int machine = k;
+                futures.add(executor.submit(() -> sequences[machine] = sequence(problem, solution, machine)));
+            }
+            try {
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } catch (InterruptedException e) {
+
+                // Keep the interrupted status and apply the sequences computed so far
+                Thread.currentThread().interrupt();
+                for (Future<?> future : futures) {
+                    future.cancel(true);
+                }
+            } catch (Exception e) {
+                throw new RuntimeException(e.getMessage(), e);
+            }
+        }
+
+        // Copy the new sequences to the solution
+        int count = 0;
+        for (int k = 0; k < problem.m; ++k) {
+            if (sequences[k] != null && apply(solution, k, sequences[k], false)) {
+                ++count;
+            }
+        }
+        solution.update();
+        return count;
+    }
+
+
+    // --------------------------------------------------------------------------------------------
+    // Auxiliary methods
+    // --------------------------------------------------------------------------------------------
+
+    /**
+     * Return the new sequence of the jobs of a machine, or null if the makespan of the machine is
+     * not reduced. The solution is not changed.
+     */
+    private int[] sequence(Problem problem, Solution solution, int k) {
+        int count = solution.count(k);
+        if (count <= 1) {
+            return null;
+        }
+
+        int[] jobs = jobs(solution, k);
+        int current = solution.getMakespan(k);
+
+        // Reuse the best known sequence of the jobs
+        SequenceCache cache = (this.cache != null && this.cache.getProblem() == problem ? this.cache : null);
+        long hash = (cache != null ? SequenceCache.hash(problem, k, jobs) : 0L);
+        int makespan = (cache != null ? cache.get(k, hash, jobs) : -1);
+
+        if (makespan < 0) {
+            Sequencer sequencer = (count <= exactLimit ? exact : heuristic);
+            makespan = sequencer.sequence(problem, k, jobs);
+            if (cache != null && makespan < current) {
+                cache.put(k, hash, jobs, makespan);
+            }
+        }
+
+        // Keep the current sequence in the cache if it is better
+        if (cache != null && makespan >= current) {
+            cache.put(k, hash, jobs(solution, k), current);
+        }
+        return (makespan < current ? jobs : null);
+    }
+
+    /**
+     * Return a copy of the jobs of a machine.
+     */
+    private static int[] jobs(Solution solution, int k) {
+        int[] jobs = new int[solution.count(k)];
+        for (int idx = 0; idx < jobs.length; ++idx) {
+            jobs[idx] = solution.get(k, idx);
+        }
+        return jobs;
+    }
+
+    /**
+     * Copy the sequence of jobs to a machine of the solution.
+     */
+    private boolean apply(Solution solution, int k, int[] jobs, boolean update) {
+        int makespan = solution.getMakespan(k);
+        for (int idx = 0; idx < jobs.length; ++idx) {
+            if (solution.get(k, idx) != jobs[idx]) {
+                solution.set(jobs[idx], k, idx, false);
+            }
+        }
+        if (update) {
+            solution.update();
+        }
+        return solution.getMakespan(k) < makespan;
+    }
+
+}
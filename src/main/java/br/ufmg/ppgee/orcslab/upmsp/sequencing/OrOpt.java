@@ -0,0 +1,101 @@
+package br.ufmg.ppgee.orcslab.upmsp.sequencing;
+
+import br.ufmg.ppgee.orcslab.upmsp.problem.Problem;
+
+/**
+ * Heuristic sequencing by the Or-opt local search [1]: segments of up to {@link #MAX_SEGMENT}
+ * consecutive jobs are moved to other positions of the sequence (keeping their order, since the
+ * setup times are asymmetric) while this reduces the sum of setup times. It is a restricted
+ * 3-opt whose moves are evaluated in constant time, so each pass takes O(n<sup>2</sup>) time.
+ *
+ * <p>[1] Or. Traveling salesman-type combinatorial problems and their relation to the logistics of
+ * regional blood banking. PhD thesis, Northwestern University, 1976.
+ */
+public class OrOpt implements Sequencer {
+
+    /**
+     * Maximum length of the segments moved.
+     */
+    public static final int MAX_SEGMENT = 3;
+
+    @Override
+    public int sequence(Problem problem, int k, int[] jobs) {
+        int n = jobs.length;
+        int[][] s = problem.s[k];
+
+        // Apply improving moves until a local optimum is reached
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+
+            for (int length = 1; length <= MAX_SEGMENT && length < n; ++length) {
+                for (int first = 0; first + length <= n; ++first) {
+                    int last = first + length - 1;
+                    int before = (first > 0 ? jobs[first - 1] : -1);
+                    int after = (last < n - 1 ? jobs[last + 1] : -1);
+
+                    // Gain of removing the segment
+                    int removal = setup(s, before, jobs[first]) + setup(s, jobs[last], after) - setup(s, before, after);
+
+                    // Best position to insert it: between jobs[gap - 1] and jobs[gap] (the gaps
+                    // adjacent to the segment are its current position)
+                    int bestDelta = 0;
+                    int bestGap = -1;
+                    for (int gap = 0; gap <= n; ++gap) {
+                        if (gap >= first && gap <= last + 1) {
+                            continue;
+                        }
+                        int u = (gap > 0 ? jobs[gap - 1] : -1);
+                        int v = (gap < n ? jobs[gap] : -1);
+                        int delta = setup(s, u, jobs[first]) + setup(s, jobs[last], v) - setup(s, u, v) - removal;
+                        if (delta < bestDelta) {
+                            bestDelta = delta;
+                            bestGap = gap;
+                        }
+                    }
+
+                    // Move the segment
+                    if (bestGap >= 0) {
+                        move(jobs, first, length, bestGap);
+                        improved = true;
+                    }
+                }
+            }
+        }
+
+        // Makespan of the machine
+        int makespan = 0;
+        for (int idx = 0; idx < n; ++idx) {
+            makespan += problem.p[k][jobs[idx]] + (idx > 0 ? s[jobs[idx - 1]][jobs[idx]] : 0);
+        }
+        return makespan;
+    }
+
+
+    // --------------------------------------------------------------------------------------------
+    // Auxiliary methods
+    // --------------------------------------------------------------------------------------------
+
+    /**
+     * Setup time between two jobs, in which -1 represents the start or the end of the sequence.
+     */
+    private static int setup(int[][] s, int i, int j) {
+        return (i < 0 || j < 0 ? 0 : s[i][j]);
+    }
+
+    /**
+     * Move the segment {@code jobs[first..first+length)} to the gap before {@code jobs[gap]}.
+     */
+    private static void move(int[] jobs, int first, int length, int gap) {
+        int[] segment = new int[length];
+        System.arraycopy(jobs, first, segment, 0, length);
+        if (gap < first) {
+            System.arraycopy(jobs, gap, jobs, gap + length, first - gap);
+            System.arraycopy(segment, 0, jobs, gap, length);
+        } else {
+            System.arraycopy(jobs, first + length, jobs, first, gap - first - length);
+            System.arraycopy(segment, 0, jobs, gap - length, length);
+        }
+    }
+
+}
@@ -0,0 +1,192 @@
+package br.ufmg.ppgee.orcslab.upmsp.sequencing;
+
+import br.ufmg.ppgee.orcslab.upmsp.problem.Problem;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Cache of the best known sequences of the sets of jobs assigned to the machines. Throughout a
+ * run (and among the algorithms that run concurrently, as the members of a portfolio), the same
+ * set of jobs is often assigned to the same machine, so the sequence found for it can be reused
+ * instead of sequencing the jobs again. The entries are indexed by a hash of the machine and the
+ * set of jobs, which does not depend on their order (see {@link #hash(Problem, int, int[])}), and
+ * the least recently used entries are removed when the estimated memory used by the cache exceeds
+ * the given limit. The numbers of hits and misses are kept, so it can be checked whether the
+ * cache pays off.
+ * <p>
+ * The cache is thread-safe, so the machines of a solution can be sequenced in parallel.
+ */
+public class SequenceCache {
+
+    /**
+     * Estimated memory (in bytes) used by an entry besides its sequence.
+     */
+    private static final long ENTRY_OVERHEAD = 96L;
+
+    private final Problem problem;
+    private final long capacity;
+    private final LinkedHashMap<Long, Entry> entries;
+    private long memory;
+    private long hits;
+    private long misses;
+
+    /**
+     * Constructor.
+     * @param problem The problem instance.
+     * @param capacity Maximum memory (in bytes) used by the cache.
+     */
+    public SequenceCache(Problem problem, long capacity) {
+        this.problem = problem;
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        this.memory = 0L;
+        this.hits = 0L;
+        this.misses = 0L;
+    }
+
+    /**
+     * Return the problem instance of the sequences.
+     * @return The problem instance.
+     */
+    public Problem getProblem() {
+        return problem;
+    }
+
+    /**
+     * Return the hash of a set of jobs assigned to a machine: the sum of a key for each pair
+     * (machine, job), so it does not depend on the order of the jobs.
+     * @param problem The problem instance.
+     * @param k The machine.
+     * @param jobs The jobs.
+     * @return The hash.
+     */
+    public static long hash(Problem problem, int k, int[] jobs) {
+        long hash = 0L;
+        for (int job : jobs) {
+            long z = ((long) k * problem.n + job + 1) * 0x9E3779B97F4A7C15L;
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            hash += z ^ (z >>> 31);
+        }
+        return hash;
+    }
+
+    /**
+     * Copy the best known sequence of a set of jobs assigned to a machine to the array of jobs.
+     * @param k The machine.
+     * @param hash Hash of the set of jobs (see {@link #hash(Problem, int, int[])}).
+     * @param jobs The jobs (in any order), replaced by the best known sequence if it is found.
+     * @return The makespan of the machine with the best known sequence, or -1 if it is not in the
+     * cache (in this case, the jobs are not changed).
+     */
+    public synchronized int get(int k, long hash, int[] jobs) {
+        Entry entry = entries.get(hash);
+        if (entry == null || !entry.matches(k, jobs)) {
+            ++misses;
+            return -1;
+        }
+        ++hits;
+        System.arraycopy(entry.sequence, 0, jobs, 0, jobs.length);
+        return entry.makespan;
+    }
+
+    /**
+     * Store the sequence of a set of jobs assigned to a machine, if it is better than the one in
+     * the cache.
+     * @param k The machine.
+     * @param hash Hash of the set of jobs (see {@link #hash(Problem, int, int[])}).
+     * @param sequence The sequence of the jobs (a copy is stored).
+     * @param makespan The makespan of the machine with the sequence.
+     */
+    public synchronized void put(int k, long hash, int[] sequence, int makespan) {
+        Entry entry = entries.get(hash);
+        if (entry != null && entry.matches(k, sequence) && entry.makespan <= makespan) {
+            return;
+        }
+        if (entry != null) {
+            memory -= entry.memory();
+        }
+
+        entry = new Entry(k, sequence.clone(), makespan);
+        entries.put(hash, entry);
+        memory += entry.memory();
+
+        // Remove the least recently used entries
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (memory > capacity && iterator.hasNext()) {
+            memory -= iterator.next().memory();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Return the number of sequences found in the cache.
+     * @return The number of hits.
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Return the number of sequences not found in the cache.
+     * @return The number of misses.
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Return the number of sequences stored.
+     * @return The number of entries.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+
+    // --------------------------------------------------------------------------------------------
+    // Auxiliary classes
+    // --------------------------------------------------------------------------------------------
+
+    /**
+     * Best known sequence of a set of jobs assigned to a machine.
+     */
+    private class Entry {
+
+        final int machine;
+        final int[] sequence;
+        final int makespan;
+
+        Entry(int machine, int[] sequence, int makespan) {
+            this.machine = machine;
+            this.sequence = sequence;
+            this.makespan = makespan;
+        }
+
+        long memory() {
+            return ENTRY_OVERHEAD + 4L * sequence.length;
+        }
+
+        /**
+         * Return true if the entry has the same machine and set of jobs (the hashes of different
+         * sets may collide).
+         */
+        boolean matches(int k, int[] jobs) {
+            if (machine != k || sequence.length != jobs.length) {
+                return false;
+            }
+            boolean[] found = new boolean[problem.n];
+            for (int job : sequence) {
+                found[job] = true;
+            }
+            for (int job : jobs) {
+                if (!found[job]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+}
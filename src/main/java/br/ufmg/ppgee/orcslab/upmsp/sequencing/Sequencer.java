@@ -0,0 +1,24 @@
+package br.ufmg.ppgee.orcslab.upmsp.sequencing;
+
+import br.ufmg.ppgee.orcslab.upmsp.problem.Problem;
+
+/**
+ * Common interface implemented by the algorithms that sequence the jobs assigned to a machine.
+ * Since the processing times do not depend on the sequence, minimizing the makespan of a machine
+ * is equivalent to finding the path through all its jobs with the smallest sum of setup times
+ * (an asymmetric traveling salesman path problem).
+ */
+public interface Sequencer {
+
+    /**
+     * Reorder the jobs of a machine to minimize its makespan. The implementations must be thread
+     * safe, so the machines of a solution can be sequenced in parallel.
+     * @param problem The instance of the problem.
+     * @param k The machine.
+     * @param jobs The jobs assigned to the machine, in the current order. The array is reordered
+     *             in place, and the resulting makespan is never worse than the current one.
+     * @return The makespan of the machine with the new order.
+     */
+    int sequence(Problem problem, int k, int[] jobs);
+
+}
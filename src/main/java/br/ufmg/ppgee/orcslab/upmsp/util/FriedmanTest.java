@@ -0,0 +1,185 @@
+package br.ufmg.ppgee.orcslab.upmsp.util;
+
+/**
+ * Friedman test for comparing several configurations (treatments) on the same instances
+ * (blocks), followed by the pairwise comparisons of Conover, as used by the F-race [1]. The
+ * results are ranked within each block (ties get the average rank), so the scale of the results
+ * of different instances does not matter.
+ *
+ * <p>The quantiles of the chi-squared and Student's t distributions are computed by
+ * approximations (Wilson-Hilferty and Cornish-Fisher expansions), which are accurate enough to
+ * decide which configurations are discarded.
+ *
+ * <p>[1] Birattari, St&uuml;tzle, Paquete and Varrentrapp. A racing algorithm for configuring
+ * metaheuristics. Proceedings of the Genetic and Evolutionary Computation Conference, 2002.
+ */
+public class FriedmanTest {
+
+    private final double[] rankSums;
+    private final boolean significant;
+    private final double criticalDifference;
+
+    /**
+     * Perform the test.
+     * @param results Results (lower is better), indexed by block and configuration. All blocks
+     *                must have the results of all configurations.
+     * @param alpha Significance level (e.g., 0.05).
+     */
+    public FriedmanTest(double[][] results, double alpha) {
+        int b = results.length;
+        int k = (b > 0 ? results[0].length : 0);
+        rankSums = new double[k];
+
+        // Rank the results of each block
+        double a1 = 0.0;
+        for (double[] block : results) {
+            double[] ranks = rank(block);
+            for (int j = 0; j < k; ++j) {
+                rankSums[j] += ranks[j];
+                a1 += ranks[j] * ranks[j];
+            }
+        }
+        double c1 = b * k * (k + 1.0) * (k + 1.0) / 4.0;
+
+        // Not enough data or all results tied
+        if (b < 2 || k < 2 || a1 - c1 <= 1e-9) {
+            significant = false;
+            criticalDifference = Double.POSITIVE_INFINITY;
+            return;
+        }
+
+        // Friedman statistic
+        double sum = 0.0;
+        for (int j = 0; j < k; ++j) {
+            double diff = rankSums[j] - b * (k + 1.0) / 2.0;
+            sum += diff * diff;
+        }
+        double t = (k - 1.0) * sum / (a1 - c1);
+        significant = t > chiSquaredQuantile(1.0 - alpha, k - 1);
+
+        // Minimum difference of the rank sums of two configurations to consider them different
+        int df = (b - 1) * (k - 1);
+        double variance = 2.0 * b * (a1 - c1) / df * Math.max(0.0, 1.0 - t / (b * (k - 1.0)));
+        criticalDifference = studentQuantile(1.0 - alpha / 2.0, df) * Math.sqrt(variance);
+    }
+
+    /**
+     * Return true if the null hypothesis (all configurations are equivalent) is rejected.
+     * @return True if the configurations are different.
+     */
+    public boolean isSignificant() {
+        return significant;
+    }
+
+    /**
+     * Return the sum of the ranks of a configuration over all blocks.
+     * @param configuration The configuration.
+     * @return The sum of ranks.
+     */
+    public double getRankSum(int configuration) {
+        return rankSums[configuration];
+    }
+
+    /**
+     * Return the index of the configuration with the lowest sum of ranks.
+     * @return The best configuration.
+     */
+    public int getBest() {
+        int best = 0;
+        for (int j = 1; j < rankSums.length; ++j) {
+            if (rankSums[j] < rankSums[best]) {
+                best = j;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Return true if a configuration is significantly worse than the best one. It is always
+     * false if the Friedman test is not significant.
+     * @param configuration The configuration.
+     * @return True if the configuration can be discarded.
+     */
+    public boolean isWorseThanBest(int configuration) {
+        return significant && rankSums[configuration] - rankSums[getBest()] > criticalDifference;
+    }
+
+
+    // --------------------------------------------------------------------------------------------
+    // Auxiliary methods
+    // --------------------------------------------------------------------------------------------
+
+    /**
+     * Ranks (from 1) of the values, in which ties get the average rank.
+     */
+    private static double[] rank(double[] values) {
+        double[] ranks = new double[values.length];
+        for (int i = 0; i < values.length; ++i) {
+            int less = 0;
+            int equal = 0;
+            for (double value : values) {
+                if (value < values[i]) {
+                    ++less;
+                } else if (value == values[i]) {
+                    ++equal;
+                }
+            }
+            ranks[i] = less + (equal + 1) / 2.0;
+        }
+        return ranks;
+    }
+
+    /**
+     * Quantile of the chi-squared distribution (Wilson-Hilferty approximation).
+     */
+    private static double chiSquaredQuantile(double p, int df) {
+        double z = normalQuantile(p);
+        double h = 2.0 / (9.0 * df);
+        double value = 1.0 - h + z * Math.sqrt(h);
+        return df * value * value * value;
+    }
+
+    /**
+     * Quantile of the Student's t distribution (Cornish-Fisher expansion, see Abramowitz and
+     * Stegun, 26.7.5).
+     */
+    private static double studentQuantile(double p, int df) {
+        double z = normalQuantile(p);
+        double z2 = z * z;
+        double g1 = z * (z2 + 1.0) / 4.0;
+        double g2 = z * ((5.0 * z2 + 16.0) * z2 + 3.0) / 96.0;
+        double g3 = z * (((3.0 * z2 + 19.0) * z2 + 17.0) * z2 - 15.0) / 384.0;
+        double g4 = z * ((((79.0 * z2 + 776.0) * z2 + 1482.0) * z2 - 1920.0) * z2 - 945.0) / 92160.0;
+        double v = df;
+        return z + g1 / v + g2 / (v * v) + g3 / (v * v * v) + g4 / (v * v * v * v);
+    }
+
+    /**
+     * Quantile of the standard normal distribution (rational approximation of Acklam, with
+     * relative error less than 1.15e-9).
+     */
+    private static double normalQuantile(double p) {
+        final double[] a = {-3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02,
+                1.383577518672690e+02, -3.066479806614716e+01, 2.506628277459239e+00};
+        final double[] b = {-5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02,
+                6.680131188771972e+01, -1.328068155288572e+01};
+        final double[] c = {-7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00,
+                -2.549732539343734e+00, 4.374664141464968e+00, 2.938163982698783e+00};
+        final double[] d = {7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00,
+                3.754408661907416e+00};
+
+        if (p < 0.02425) {
+            double q = Math.sqrt(-2.0 * Math.log(p));
+            return (((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5])
+                    / ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1.0);
+        } else if (p > 1.0 - 0.02425) {
+            return -normalQuantile(1.0 - p);
+        } else {
+            double q = p - 0.5;
+            double r = q * q;
+            return (((((a[0] * r + a[1]) * r + a[2]) * r + a[3]) * r + a[4]) * r + a[5]) * q
+                    / (((((b[0] * r + b[1]) * r + b[2]) * r + b[3]) * r + b[4]) * r + 1.0);
+        }
+    }
+
+}
@@ -0,0 +1,77 @@
+package br.ufmg.ppgee.orcslab.upmsp.util;
+
+import br.ufmg.ppgee.orcslab.upmsp.problem.Problem;
+import br.ufmg.ppgee.orcslab.upmsp.problem.Solution;
+
+/**
+ * Auxiliary class to store an insertion of a job into a solution (i.e., a machine and a position
+ * on that machine), as well as methods to find the best insertion using
+ * {@link Solution#getCostAdd(int, int, int)}.
+ */
+public class Insertion {
+
+    /**
+     * The machine.
+     */
+    public int machine;
+
+    /**
+     * Position at the machine in which the job is inserted.
+     */
+    public int position;
+
+    /**
+     * Change in the machine's makespan caused by the insertion.
+     */
+    public int cost;
+
+    /**
+     * Completion time of the machine after the insertion.
+     */
+    public int completion;
+
+    /**
+     * Return the insertion of the job that results in the earliest completion time of the machine
+     * that receives it. Ties are broken by the smallest change in the machines' makespan.
+     * @param problem The problem instance.
+     * @param solution The solution in which the job will be inserted.
+     * @param job The job to insert (it must not be assigned to any machine).
+     * @return The best insertion of the job.
+     */
+    public static Insertion best(Problem problem, Solution solution, int job) {
+        return best(problem, solution, job, new Insertion());
+    }
+
+    /**
+     * Same as {@link #best(Problem, Solution, int)}, but the result is stored in the object given
+     * as argument to avoid allocation in loops.
+     * @param problem The problem instance.
+     * @param solution The solution in which the job will be inserted.
+     * @param job The job to insert (it must not be assigned to any machine).
+     * @param output Object in which the best insertion is stored.
+     * @return The object {@code output}.
+     */
+    public static Insertion best(Problem problem, Solution solution, int job, Insertion output) {
+        output.machine = -1;
+        output.position = -1;
+        output.cost = Integer.MAX_VALUE;
+        output.completion = Integer.MAX_VALUE;
+
+        for (int k = 0; k < problem.m; ++k) {
+            int makespan = solution.getMakespan(k);
+            for (int position = 0; position <= solution.count(k); ++position) {
+                int cost = solution.getCostAdd(job, k, position);
+                int completion = makespan + cost;
+                if (completion < output.completion || (completion == output.completion && cost < output.cost)) {
+                    output.machine = k;
+                    output.position = position;
+                    output.cost = cost;
+                    output.completion = completion;
+                }
+            }
+        }
+
+        return output;
+    }
+
+}
@@ -0,0 +1,102 @@
+package br.ufmg.ppgee.orcslab.upmsp.util;
+
+/**
+ * Fixed-size hash table that stores 64-bit keys (e.g., hashes of solutions or of attributes of
+ * moves) with the iteration in which they were last inserted. It uses open addressing with linear
+ * probing over primitive arrays, so it allocates no objects after construction. Entries are never
+ * removed: when the probe sequence of a key is full, the oldest entry in it is replaced, so the
+ * table keeps (approximately) the most recent keys.
+ */
+public class TabuTable {
+
+    /**
+     * Maximum number of slots probed for a key.
+     */
+    private static final int MAX_PROBES = 8;
+
+    /**
+     * Key used to mark empty slots (a key with this value is stored as another one).
+     */
+    private static final long EMPTY = 0L;
+
+    private final long[] keys;
+    private final long[] iterations;
+    private final int mask;
+    private final int shift;
+
+    /**
+     * Constructor.
+     * @param capacity Number of slots (rounded up to a power of two).
+     */
+    public TabuTable(int capacity) {
+        int size = Integer.highestOneBit(Math.max(MAX_PROBES, capacity - 1)) << 1;
+        this.keys = new long[size];
+        this.iterations = new long[size];
+        this.mask = size - 1;
+        this.shift = 64 - Integer.numberOfTrailingZeros(size);
+    }
+
+    /**
+     * Insert a key or update its iteration.
+     * @param key The key.
+     * @param iteration The current iteration.
+     */
+    public void put(long key, long iteration) {
+        key = normalize(key);
+        int slot = index(key);
+        int oldest = slot;
+        for (int probe = 0; probe < MAX_PROBES; ++probe, slot = (slot + 1) & mask) {
+            if (keys[slot] == key || keys[slot] == EMPTY) {
+                keys[slot] = key;
+                iterations[slot] = iteration;
+                return;
+            }
+            if (iterations[slot] < iterations[oldest]) {
+                oldest = slot;
+            }
+        }
+
+        // Replace the oldest entry of the probe sequence
+        keys[oldest] = key;
+        iterations[oldest] = iteration;
+    }
+
+    /**
+     * Return true if the key was inserted less than {@code tenure} iterations ago.
+     * @param key The key.
+     * @param iteration The current iteration.
+     * @param tenure Number of iterations the key remains in the table.
+     * @return True if the key is in the table, or false otherwise.
+     */
+    public boolean contains(long key, long iteration, long tenure) {
+        key = normalize(key);
+        int slot = index(key);
+        for (int probe = 0; probe < MAX_PROBES; ++probe, slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return iteration - iterations[slot] < tenure;
+            }
+            if (keys[slot] == EMPTY) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+
+    // --------------------------------------------------------------------------------------------
+    // Auxiliary methods
+    // --------------------------------------------------------------------------------------------
+
+    private static long normalize(long key) {
+        return (key == EMPTY ? 0x9E3779B97F4A7C15L : key);
+    }
+
+    /**
+     * Slot of a key by Fibonacci hashing (the high bits of the product are well mixed even for
+     * small keys, e.g., made of the indexes of a job and a machine).
+     */
+    private int index(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+
+}
@@ -63,6 +63,16 @@ public class Timer {
         }
     }
 
+    /**
+     * Add some time to the elapsed time (e.g., the time elapsed in a previous run that is being
+     * resumed). The timer must be started.
+     * @param time The time to add.
+     * @param unit Unit of the time to add.
+     */
+    public void advance(long time, TimeUnit unit) {
+        accumulated += unit.toNanos(time);
+    }
+
     /**
      * Reset the timer.
      */